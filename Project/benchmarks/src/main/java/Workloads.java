@@ -0,0 +1,217 @@
+
+import benchmarks.Workload;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The workloads run by HotPathBenchmark.
+ * <p>
+ * These are in the default package with the game classes so they can call
+ * them, see Workload. Every puzzle is made by PuzzleGenerator from a fixed
+ * seed, so each run of the benchmarks works on exactly the same tiles.
+ * 
+ * @see benchmarks.HotPathBenchmark
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class Workloads {
+
+  // Seed of the puzzle every workload uses
+  private static final long puzzleSeed = 3011;
+
+  // Difficulty of the puzzle (only changes which walls each tile draws)
+  private static final double puzzleDifficulty = 0.5;
+
+  // Size of a piece in pixels
+  private static final int pieceSize = 100;
+
+  // Largest part of the board the game shows at once
+  private static final int viewWidth = 560;
+  private static final int viewHeight = 800;
+
+  /**
+   * The puzzle the workloads use for a board size
+   * 
+   * @param size The number of squares down and across the board
+   * 
+   * @return size * size tiles
+   * 
+   * @since 5.0
+   */
+  static List<PieceData> puzzle(int size) {
+    return new PuzzleGenerator(size, size, puzzleDifficulty)
+        .generate(puzzleSeed);
+  }
+
+  /**
+   * Parse the .mze bytes of the puzzle
+   */
+  public static class ReadData implements Workload {
+
+    // The .mze file, already in memory
+    private byte[] data;
+
+    @Override
+    public void setUp(int size) {
+      data = MzeFileWriter.toBytes(puzzle(size));
+    }
+
+    @Override
+    public Object run() throws Exception {
+      return MzeFileReader.readData(data);
+    }
+  }
+
+  /**
+   * Rotate every tile of the puzzle once
+   */
+  public static class Rotate implements Workload {
+
+    // The tiles being rotated
+    private PieceData[] tiles;
+
+    @Override
+    public void setUp(int size) {
+      tiles = puzzle(size).toArray(new PieceData[0]);
+    }
+
+    @Override
+    public Object run() {
+      for (PieceData tile : tiles) {
+        tile.rotate();
+      }
+      return tiles;
+    }
+  }
+
+  /**
+   * Clone every tile of the puzzle
+   */
+  public static class CloneTiles implements Workload {
+
+    // The tiles to clone, and the array the clones go into
+    private PieceData[] tiles;
+    private PieceData[] clones;
+
+    @Override
+    public void setUp(int size) {
+      tiles = puzzle(size).toArray(new PieceData[0]);
+      clones = new PieceData[tiles.length];
+    }
+
+    @Override
+    public Object run() {
+      for (int i = 0; i < tiles.length; i++) {
+        clones[i] = tiles[i].clone();
+      }
+      return clones;
+    }
+  }
+
+  /**
+   * Reset a game with every tile on the board
+   * <p>
+   * This is what Reset does in the game, it replaced GameController.copyData.
+   */
+  public static class Reset implements Workload {
+
+    // The game being reset
+    private GameEngine engine;
+
+    @Override
+    public void setUp(int size) {
+      engine = new GameEngine(puzzle(size), size, size);
+      engine.newGame(new Random(puzzleSeed));
+    }
+
+    @Override
+    public Object run() {
+      engine.reset();
+      return engine;
+    }
+  }
+
+  /**
+   * Paint one piece into an offscreen image, a different tile each time
+   * <p>
+   * The tiles are painted from the shared TileImageCache like in the game, so
+   * on larger boards this also shows how well the cache holds every tile.
+   */
+  public static class PaintPiece implements Workload {
+
+    // A piece for every tile, and the next one to paint
+    private Piece[] pieces;
+    private int next = 0;
+
+    // The image the pieces are painted into
+    private BufferedImage image;
+
+    @Override
+    public void setUp(int size) {
+      List<PieceData> tiles = puzzle(size);
+      pieces = new Piece[tiles.size()];
+      for (int i = 0; i < pieces.length; i++) {
+        pieces[i] = new Piece();
+        pieces[i].drawImage(tiles.get(i));
+        pieces[i].setSize(pieceSize, pieceSize);
+      }
+      image = new BufferedImage(pieceSize, pieceSize,
+          BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Override
+    public Object run() {
+      Graphics2D g = image.createGraphics();
+      pieces[next].paintComponent(g);
+      g.dispose();
+      next = next + 1 == pieces.length ? 0 : next + 1;
+      return image;
+    }
+  }
+
+  /**
+   * Paint a full board into an offscreen image the size of the board view
+   * <p>
+   * The board is built the way the GameController builds it, so the largest
+   * size uses the virtual rendering mode and the smaller ones hold a Piece
+   * component in every square.
+   */
+  public static class PaintBoard implements Workload {
+
+    // The board, with a piece in every square
+    private Board board;
+
+    // The part of the board in view
+    private BufferedImage image;
+
+    @Override
+    public void setUp(int size) {
+      List<PieceData> tiles = puzzle(size);
+      board = new Board(size, size,
+          size * size > GameController.virtualBoardCells);
+      board.setSize(board.getPreferredSize());
+      board.doLayout();
+      for (int i = 0; i < tiles.size(); i++) {
+        Piece piece = new Piece();
+        piece.drawImage(tiles.get(i));
+        board.addPiece(piece, i % size, i / size);
+      }
+      board.doLayout();
+      image = new BufferedImage(Math.min(board.getWidth(), viewWidth),
+          Math.min(board.getHeight(), viewHeight),
+          BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Override
+    public Object run() {
+      Graphics2D g = image.createGraphics();
+      g.setClip(0, 0, image.getWidth(), image.getHeight());
+      board.paint(g);
+      g.dispose();
+      return image;
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,183 @@
+package benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * JMH benchmarks of the hot paths of the game, on square boards of several
+ * sizes.
+ * <p>
+ * Each benchmark runs one Workload:
+ * <ul>
+ * <li>readData: MzeFileReader.readData of a whole .mze file</li>
+ * <li>rotate: PieceData.rotate of every tile</li>
+ * <li>cloneTiles: PieceData.clone of every tile</li>
+ * <li>reset: GameEngine.reset, which replaced GameController.copyData</li>
+ * <li>paintPiece: Piece.paintComponent of one tile into an offscreen
+ * image</li>
+ * <li>paintBoard: a repaint of a full Board into an offscreen image the size
+ * of the game's board view</li>
+ * </ul>
+ * The puzzles come from PuzzleGenerator with fixed seeds, and the number of
+ * forks, warmup and measurement iterations and the heap size are fixed here,
+ * so runs on the same machine measure the same work and can be compared. The
+ * results of a run can be saved with -rf json -rff results.json and compared
+ * with a later run.
+ * 
+ * @see Workload
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = { "-Djava.awt.headless=true", "-Xms1g",
+    "-Xmx1g" })
+public class HotPathBenchmark {
+
+  // Number of squares down and across the board
+  @Param({ "4", "16", "64" })
+  public int size;
+
+  // The workloads, each built for the board size
+  private Workload readData;
+  private Workload rotate;
+  private Workload cloneTiles;
+  private Workload reset;
+  private Workload paintPiece;
+  private Workload paintBoard;
+
+  /**
+   * Build every workload for the board size
+   * 
+   * @throws Exception If a workload cannot be set up
+   * 
+   * @since 5.0
+   */
+  @Setup(Level.Trial)
+  public void setUp() throws Exception {
+    readData = load("ReadData");
+    rotate = load("Rotate");
+    cloneTiles = load("CloneTiles");
+    reset = load("Reset");
+    paintPiece = load("PaintPiece");
+    paintBoard = load("PaintBoard");
+    return;
+  }
+
+  /**
+   * Parse a .mze file of size * size tiles
+   * 
+   * @return The tiles
+   * 
+   * @throws Exception If the data cannot be read
+   * 
+   * @since 5.0
+   */
+  @Benchmark
+  public Object readData() throws Exception {
+    return readData.run();
+  }
+
+  /**
+   * Rotate every tile of the puzzle once
+   * 
+   * @return The tiles
+   * 
+   * @throws Exception Never
+   * 
+   * @since 5.0
+   */
+  @Benchmark
+  public Object rotate() throws Exception {
+    return rotate.run();
+  }
+
+  /**
+   * Clone every tile of the puzzle
+   * 
+   * @return The clones
+   * 
+   * @throws Exception Never
+   * 
+   * @since 5.0
+   */
+  @Benchmark
+  public Object cloneTiles() throws Exception {
+    return cloneTiles.run();
+  }
+
+  /**
+   * Put a game back to its starting layout
+   * 
+   * @return The engine
+   * 
+   * @throws Exception Never
+   * 
+   * @since 5.0
+   */
+  @Benchmark
+  public Object reset() throws Exception {
+    return reset.run();
+  }
+
+  /**
+   * Paint one piece, a different tile each time
+   * 
+   * @return The image painted into
+   * 
+   * @throws Exception Never
+   * 
+   * @since 5.0
+   */
+  @Benchmark
+  public Object paintPiece() throws Exception {
+    return paintPiece.run();
+  }
+
+  /**
+   * Paint the visible part of a full board
+   * 
+   * @return The image painted into
+   * 
+   * @throws Exception Never
+   * 
+   * @since 5.0
+   */
+  @Benchmark
+  public Object paintBoard() throws Exception {
+    return paintBoard.run();
+  }
+
+  /**
+   * Load a workload from the default package and set it up
+   * 
+   * @param name The name of the workload within Workloads
+   * 
+   * @return The workload, ready to run
+   * 
+   * @throws Exception If the workload cannot be loaded or set up
+   * 
+   * @since 5.0
+   */
+  private Workload load(String name) throws Exception {
+    Workload workload = Class.forName("Workloads$" + name)
+        .asSubclass(Workload.class).getDeclaredConstructor().newInstance();
+    workload.setUp(size);
+    return workload;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package benchmarks;
+
+/**
+ * One hot path of the game, set up for a board size and run over and over by
+ * HotPathBenchmark.
+ * <p>
+ * The game classes are in the default package, which this package cannot
+ * refer to, so the workloads that call them live in the default package
+ * (Workloads) and are loaded by name through this interface. The call through
+ * the interface always goes to the same class, so the JIT inlines it and it
+ * adds nothing measurable to the time of the work.
+ * 
+ * @see HotPathBenchmark
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public interface Workload {
+
+  /**
+   * Build everything the workload needs, outside of the measured time
+   * 
+   * @param size The number of squares down and across the board
+   * 
+   * @throws Exception If the workload cannot be set up
+   * 
+   * @since 5.0
+   */
+  void setUp(int size) throws Exception;
+
+  /**
+   * Do the work once
+   * 
+   * @return A result of the work, so it cannot be optimized away
+   * 
+   * @throws Exception If the work fails
+   * 
+   * @since 5.0
+   */
+  Object run() throws Exception;
+}
\ No newline at end of file
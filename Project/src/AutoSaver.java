@@ -0,0 +1,266 @@
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+import javax.swing.Timer;
+
+/**
+ * Saves the game in the background after the player makes moves.
+ * <p>
+ * The AutoSaver follows a GameEngine as a GameListener. A change does not save
+ * right away, it starts a Swing Timer that is restarted by every change, so a
+ * burst of moves is saved once when the player stops. If the moves keep
+ * coming the game is still saved at least every maxDelay milliseconds.
+ * <p>
+ * When the timer fires a GameSnapshot is taken on the event dispatch thread,
+ * which only copies a few arrays, and handed to a single writer thread. The
+ * writer always saves the newest snapshot and skips any older one still
+ * waiting, so a slow disk never builds up a queue of saves. SaveFile writes a
+ * temporary file and renames it over the save, so a crash during a save
+ * leaves the last good save in place. A solved game (see GameEngine.isSolved)
+ * has nothing left to resume, so its save is deleted instead.
+ * <p>
+ * A save that fails is handed to a failure handler on the event dispatch
+ * thread, so the player is told the game is not being saved. The handler is
+ * only called when saving starts to fail, not again for every save after it
+ * until one succeeds.
+ * <p>
+ * flush saves any change straight away and waits for it to be written, it is
+ * called when the player quits or closes the window.
+ * 
+ * @see SaveFile
+ * @see GameEngine#snapshot()
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class AutoSaver implements GameListener {
+
+  // Milliseconds without a change before the game is saved
+  static final int quietDelay = 500;
+
+  // Longest a change waits to be saved while the moves keep coming
+  static final long maxDelay = 5000;
+
+  // The game being saved
+  private final GameEngine engine;
+
+  // The .mzs file the game is saved to
+  private final Path saveFile;
+
+  // Fires once the moves have stopped for quietDelay
+  private final Timer timer;
+
+  // The thread the saves are written on
+  private final ExecutorService writer;
+
+  // The newest game waiting to be written (empty to delete the save, null if
+  // there is nothing to write)
+  private final AtomicReference<Optional<GameSnapshot>> pending =
+      new AtomicReference<Optional<GameSnapshot>>();
+
+  // If there is a change that has not been snapshotted yet
+  private boolean changed = false;
+
+  // When the oldest change that has not been snapshotted was made
+  private long firstChange;
+
+  // Why the last write failed, null if it did not
+  private volatile IOException failure = null;
+
+  // Shows a failed save to the player, called on the event dispatch thread
+  private final Consumer<IOException> failureHandler;
+
+  /**
+   * Class Constructor
+   * <p>
+   * The AutoSaver still has to be added to the engine as a GameListener.
+   * 
+   * @param engine         The game to save
+   * @param saveFile       The .mzs file to save it to
+   * @param failureHandler Shows a failed save to the player, it is called on
+   *                       the event dispatch thread
+   * 
+   * @since 5.0
+   */
+  public AutoSaver(GameEngine engine, Path saveFile,
+      Consumer<IOException> failureHandler) {
+    this.engine = engine;
+    this.saveFile = saveFile;
+    this.failureHandler = failureHandler;
+    timer = new Timer(quietDelay, e -> snapshot());
+    timer.setRepeats(false);
+    writer = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "Autosave");
+      thread.setDaemon(true);
+      return thread;
+    });
+    return;
+  }
+
+  /**
+   * Save any change now and wait until it has been written
+   * 
+   * @throws IOException If the save could not be written, or the wait was
+   *                     interrupted (the interrupt is kept)
+   * 
+   * @since 5.0
+   */
+  public void flush() throws IOException {
+    snapshot();
+    try {
+      writer.submit(() -> {
+      }).get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      InterruptedIOException interrupted = new InterruptedIOException(
+          "Interrupted while waiting for the save to be written");
+      interrupted.initCause(e);
+      throw interrupted;
+    } catch (ExecutionException e) {
+      throw new IllegalStateException("Autosave failed", e.getCause());
+    }
+    if (failure != null) {
+      throw failure;
+    }
+    return;
+  }
+
+  /**
+   * Count a change, and save it once the moves stop
+   * 
+   * @since 5.0
+   */
+  private void changed() {
+    long now = System.nanoTime();
+    if (!changed) {
+      changed = true;
+      firstChange = now;
+    }
+    if (now - firstChange >= maxDelay * 1000000) {
+      snapshot();
+    } else {
+      timer.restart();
+    }
+    return;
+  }
+
+  /**
+   * Take a snapshot of the changed game and hand it to the writer
+   * 
+   * @since 5.0
+   */
+  private void snapshot() {
+    timer.stop();
+    if (!changed) {
+      return;
+    }
+    changed = false;
+    pending.set(engine.isSolved() ? Optional.<GameSnapshot>empty()
+        : Optional.of(engine.snapshot()));
+    writer.execute(this::write);
+    return;
+  }
+
+  /**
+   * Write the newest snapshot, on the writer thread
+   * <p>
+   * Snapshots taken while an earlier one was written are all handed over by
+   * then, the newest is written and the rest find nothing to do. The first
+   * failure after a good save is passed to the failure handler.
+   * 
+   * @since 5.0
+   */
+  private void write() {
+    Optional<GameSnapshot> game = pending.getAndSet(null);
+    if (game == null) {
+      return;
+    }
+    try {
+      if (game.isPresent()) {
+        SaveFile.write(saveFile, game.get());
+      } else {
+        Files.deleteIfExists(saveFile);
+      }
+      failure = null;
+    } catch (IOException e) {
+      boolean first = failure == null;
+      failure = e;
+      if (first) {
+        SwingUtilities.invokeLater(() -> failureHandler.accept(e));
+      }
+    }
+    return;
+  }
+
+  /**
+   * Save after a square changes
+   * 
+   * @param cell The row-major index of the square
+   * @param tile The tile now in the square
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void cellChanged(int cell, int tile) {
+    changed();
+    return;
+  }
+
+  /**
+   * Save after a slot changes
+   * 
+   * @param slot The index of the slot
+   * @param tile The tile now in the slot
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void slotChanged(int slot, int tile) {
+    changed();
+    return;
+  }
+
+  /**
+   * Save after a tile is rotated
+   * 
+   * @param tile The tile that was rotated
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void tileRotated(int tile) {
+    changed();
+    return;
+  }
+
+  /**
+   * Save a new, reset or resumed game
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void gameReset() {
+    changed();
+    return;
+  }
+
+  /**
+   * Save the solved game (which deletes the save)
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void puzzleSolved() {
+    changed();
+    return;
+  }
+}
\ No newline at end of file
@@ -1,5 +1,8 @@
 
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.event.MouseWheelListener;
 import javax.swing.*;
 import java.util.ArrayList;
 import java.util.List;
@@ -7,19 +10,39 @@ import java.util.List;
 /**
  * The game board for the Maze game.
  * <p>
- * The board object creates a 400x400 board with lines drawn on the JPanel to
- * create a board effect. This object is composed of a list of pieces named
- * positions, each index of this list is a position on the board. To handle the
- * movement, pieces can be added and removed from the positions list. When a
- * piece is removed, an invisible piece gets swapped in its place. This keeps
- * all other pieces in the same position after a piece is removed.
+ * The board object creates a board of rows x columns squares, each 100x100,
+ * with lines drawn on the JPanel to create a board effect. The default puzzle
+ * is a 4x4 (400x400) board, larger puzzles get larger boards. This object is
+ * composed of a list of pieces named positions, each index of this list is a
+ * position on the board. To handle the movement, pieces can be added and
+ * removed from the positions list. When a piece is removed, an invisible piece
+ * gets swapped in its place. This keeps all other pieces in the same position
+ * after a piece is removed. Every square has its own invisible placeholder
+ * piece which is created once and reused.
  * <p>
- * Each time a piece is added or removed the board is redrawn. This removes all
- * elements from the board, and replaces each piece in the positions list.
+ * The positions list finds the piece in a square, and every piece keeps a
+ * pointer to the board and the square it is in, so finding, moving or
+ * removing a piece never searches the board.
+ * <p>
+ * Every square has one component of its own, made once with the board and
+ * never removed, which paints whatever piece the positions list holds there.
+ * The pieces are not components of the board. Each time a piece is added or
+ * removed only the list and the pointers of the two pieces change, and only
+ * the component of that square is repainted. The board is never laid out
+ * again. Clicks go to the board itself and are matched to a piece with
+ * getPieceAt.
+ * <p>
+ * Very large boards (tens of thousands of squares) use the virtual rendering
+ * mode instead. A virtual board has no child components at all, the positions
+ * list is its model and paintComponent draws each piece straight from it, only
+ * for the squares that intersect the clip. Only the part of the board visible
+ * in the scroll pane is ever drawn, and the number of components is the same
+ * for any size of board. A virtual board can be zoomed by holding Control
+ * while turning the mouse wheel, which changes the size of the squares.
  * <p>
  * On initialization the positions list is filled with invisible Pieces. When a
  * piece is moved from the holding area to the board, the positions list is
- * updated and the board is redrawn. This is how the board object handles
+ * updated and its square is redrawn. This is how the board object handles
  * movement of pieces. In order to move a piece onto a different square in the
  * board, it must be removed from the board first then added to a different
  * position.
@@ -33,39 +56,187 @@ import java.util.List;
  * @version %I%, %G%
  * @since 2.0
  */
-public class Board extends JPanel {
+public class Board extends JPanel implements MouseWheelListener {
 
   // Default serialVersion (required for extension of JPanel)
   private static final long serialVersionUID = 1L;
 
-  // 16 Pieces = 4x4 grid each Piece is 100x100
-  private static final Dimension boardSize = new Dimension(400, 400);
+  // Each Piece is 100x100
+  private static final int pieceSize = 100;
+
+  // Smallest and largest squares a virtual board can be zoomed to
+  private static final int minCellSize = 20;
+  private static final int maxCellSize = 200;
+
+  // Each notch of the mouse wheel zooms by 10px
+  private static final int zoomStep = 10;
 
   // Sky blue background (same as the pieces)
   private static final Color boardColor = Color.decode("#02CCFE");
 
+  // Outline and text color of the square shown as a hint
+  private static final Color hintColor = Color.decode("#FFD700");
+
+  // Width of the hint outline
+  private static final int hintStroke = 4;
+
   // List of every piece on the board
   private List<Piece> positions = new ArrayList<Piece>();
 
+  // The invisible piece used for each empty square (reused on every move)
+  private Piece[] placeholders;
+
+  // The component that paints each square, null for a virtual board
+  private final Square[] squares;
+
+  // Number of squares down and across the board
+  private final int rows;
+  private final int columns;
+
+  // True if the board paints its pieces itself instead of holding them
+  private final boolean virtual;
+
+  // Size of a square in pixels (only changes when a virtual board is zoomed)
+  private int cellSize = pieceSize;
+
+  // The square shown as a hint (-1 if none), the turns its tile needs and if
+  // the tile in it is wrong
+  private int hintCell = -1;
+  private int hintTurns = 0;
+  private boolean hintWrong = false;
+
   /**
    * Class Constructor.
    * <p>
-   * This gives the board a sky blue background, and a 400x400 size This also
-   * sets a 4x4 GridLayout used to keep all pieces in the correct spot within
-   * the board.
+   * This gives the board a sky blue background, and a size of 100px per
+   * square. This also sets a rows x columns GridLayout used to keep all pieces
+   * in the correct spot within the board.
    * <p>
-   * clearBoard is called to initialize the positions list
+   * The placeholder pieces are created, then clearBoard is called to
+   * initialize the positions list
+   * 
+   * @param rows    The number of squares down the board
+   * @param columns The number of squares across the board
    * 
    * @since 3.0
    **/
-  public Board() {
+  public Board(int rows, int columns) {
+    this(rows, columns, false);
+    return;
+  }
+
+  /**
+   * Class Constructor for a given rendering mode
+   * <p>
+   * A virtual board has no layout and no placeholder pieces. Its empty
+   * squares are null in the positions list and the pieces on it are never
+   * added to it as components.
+   * 
+   * @param rows    The number of squares down the board
+   * @param columns The number of squares across the board
+   * @param virtual True to paint the pieces from the positions list instead of
+   *                holding a component for every square
+   * 
+   * @since 5.0
+   */
+  public Board(int rows, int columns, boolean virtual) {
+    this.rows = rows;
+    this.columns = columns;
+    this.virtual = virtual;
     this.setBackground(boardColor);
-    this.setPreferredSize(boardSize);
-    this.setLayout(new GridLayout(4, 4));
+    this.setPreferredSize(
+        new Dimension(columns * cellSize, rows * cellSize));
+    placeholders = new Piece[rows * columns];
+    if (virtual) {
+      squares = null;
+      this.setLayout(null);
+      this.addMouseWheelListener(this);
+    } else {
+      squares = new Square[rows * columns];
+      this.setLayout(new GridLayout(rows, columns));
+      for (int i = 0; i < placeholders.length; i++) {
+        placeholders[i] = new Piece();
+        placeholders[i].setVisible(false);
+        squares[i] = new Square(i);
+        this.add(squares[i]);
+      }
+    }
     clearBoard();
     return;
   }
 
+  /**
+   * Getter for the number of squares down the board
+   * 
+   * @return rows
+   * 
+   * @since 5.0
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Getter for the number of squares across the board
+   * 
+   * @return columns
+   * 
+   * @since 5.0
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Getter for the size of a square in pixels
+   * 
+   * @return cellSize
+   * 
+   * @since 5.0
+   */
+  public int getCellSize() {
+    return cellSize;
+  }
+
+  /**
+   * Checks which rendering mode the board uses
+   * 
+   * @returns boolean True if the board paints its pieces from the positions
+   *          list
+   * 
+   * @since 5.0
+   */
+  public boolean isVirtual() {
+    return virtual;
+  }
+
+  /**
+   * Get the piece in the square under a point of the board
+   * <p>
+   * The pieces are not components of the board, so this is how a click on
+   * the board is matched to the piece that was clicked.
+   * 
+   * @param x The x pixel relative to the board
+   * @param y The y pixel relative to the board
+   * 
+   * @returns Piece The piece in that square, null if the square is empty or
+   *          the point is outside the squares
+   * 
+   * @since 5.0
+   */
+  public Piece getPieceAt(int x, int y) {
+    int column = x / cellSize;
+    int row = y / cellSize;
+    if (x < 0 || y < 0 || column >= columns || row >= rows) {
+      return null;
+    }
+    Piece piece = positions.get((row * columns) + column);
+    if (piece == null || !piece.isVisible()) {
+      return null;
+    }
+    return piece;
+  }
+
   /**
    * Returns the board positions
    * 
@@ -79,17 +250,23 @@ public class Board extends JPanel {
   /**
    * Resets the board positions to all blanks.
    * <p>
-   * Clear the list of pieces and then populate it with 16 blank pieces This
-   * resets the board. The board is redrawn upon a clear.
+   * Clear the list of pieces and then populate it with the placeholder pieces
+   * This resets the board. The board is redrawn upon a clear.
+   * <p>
+   * The pieces that were on the board are told they no longer are. The
+   * placeholders of a virtual board are all null.
    * 
    * @since 4.0
    */
   public void clearBoard() {
+    for (Piece piece : positions) {
+      if (piece != null) {
+        piece.setBoard(null, -1);
+      }
+    }
     positions.clear();
-    for (int i = 0; i < 16; i++) {
-      Piece p = new Piece();
-      p.setVisible(false);
-      positions.add(p);
+    for (int i = 0; i < placeholders.length; i++) {
+      positions.add(placeholders[i]);
     }
     drawBoard();
     return;
@@ -98,20 +275,13 @@ public class Board extends JPanel {
   /**
    * Displays all pieces inside the positions list.
    * <p>
-   * Removes all the Pieces on the board first. This ensures that no pieces are
-   * drawn over. Then once the board is blank, the positions list is iterated
-   * over and each Piece is added to the board.
-   * <p>
-   * Revalidate and repaint are necessary to update the JPanel
+   * The squares paint their pieces straight from the positions list, so the
+   * whole board only needs to be repainted. This is only needed when the
+   * whole board changes, moves use setCell instead.
    * 
    * @since 2.0
    */
   public void drawBoard() {
-    this.removeAll();
-    for (int i = 0; i < 16; i++) {
-      this.add(positions.get(i));
-    }
-    this.revalidate();
     this.repaint();
     return;
   }
@@ -121,7 +291,8 @@ public class Board extends JPanel {
    * <p>
    * Check if the piece already exists on the board, remove it if the piece
    * already exists. This avoids duplicated pieces or "stuck" pieces. Add the
-   * piece to the correct grid location.
+   * piece to the correct grid location. Coordinates outside of the board are
+   * ignored.
    * 
    * @param piece The piece that is being moved on the board
    * @param x     The integer x coordinate of the grid
@@ -130,45 +301,248 @@ public class Board extends JPanel {
    * @since 4.0
    */
   public void addPiece(Piece piece, int x, int y) {
-    if (piece.getParent() == this) {
+    if (x < 0 || x >= columns || y < 0 || y >= rows) {
+      return;
+    }
+    if (contains(piece)) {
       removePiece(piece);
     }
 
     // The positions list is row-major, (single dimension)
     // Given a coordinate pair ie (4,3) calculate the index
-    int index = (y * 4) + x;
-    positions.set(index, piece);
-    drawBoard();
+    int index = (y * columns) + x;
+    setCell(index, piece);
     return;
   }
 
   /**
    * Remove a piece from the board
    * <p>
-   * The piece must exist within the board. Then it is replaced with an
-   * invisible piece.
+   * The piece must exist within the board. Then it is replaced with the
+   * invisible placeholder piece for its square. The piece knows its square so
+   * the board is not searched.
    * 
    * @param piece The piece to be moved off the board
    * 
    * @since 4.0
    */
   public void removePiece(Piece piece) {
-    if (piece.getParent() == this) {
-      Piece p = new Piece();
-      p.setVisible(false);
-      positions.set(positions.indexOf(piece), p);
-      drawBoard();
+    if (contains(piece)) {
+      int index = piece.getBoardCell();
+      setCell(index, placeholders[index]);
+    }
+    return;
+  }
+
+  /**
+   * Checks if a piece is on this board
+   * 
+   * @param piece The piece to look for
+   * 
+   * @returns boolean True if the piece is in one of the squares
+   * 
+   * @since 5.0
+   */
+  private boolean contains(Piece piece) {
+    return piece.getBoard() == this;
+  }
+
+  /**
+   * Repaint the square holding a piece
+   * <p>
+   * Pieces on the board are not displayed themselves, so Piece sends its
+   * repaints here (when it is selected, rotated or flashes) and only its
+   * square is painted again.
+   * 
+   * @param piece The piece that changed
+   * 
+   * @see Piece
+   * 
+   * @since 5.0
+   */
+  public void repaintPiece(Piece piece) {
+    int index = piece.getBoardCell();
+    if (piece.getBoard() == this && index >= 0) {
+      repaintCell(index);
     }
     return;
   }
 
+  /**
+   * Repaint one square
+   * 
+   * @param index The row-major index of the square
+   * 
+   * @since 5.0
+   */
+  private void repaintCell(int index) {
+    if (virtual) {
+      this.repaint(cellBounds(index));
+    } else {
+      squares[index].repaint();
+    }
+    return;
+  }
+
+  /**
+   * The pixel bounds of a square
+   * 
+   * @param index The row-major index of the square
+   * 
+   * @returns Rectangle The area of the board covered by the square
+   * 
+   * @since 5.0
+   */
+  private Rectangle cellBounds(int index) {
+    return new Rectangle((index % columns) * cellSize,
+        (index / columns) * cellSize, cellSize, cellSize);
+  }
+
+  /**
+   * Put a piece into a single square of the board
+   * <p>
+   * Only the positions list and the pointers of the old and new piece to
+   * their square are updated. No component is added or removed, the square
+   * paints its new piece the next time it is painted and only that square is
+   * repainted.
+   * 
+   * @param index The row-major index of the square
+   * @param piece The piece (or placeholder) to put in the square
+   * 
+   * @since 5.0
+   */
+  private void setCell(int index, Piece piece) {
+    Piece old = positions.set(index, piece);
+    if (old == piece) {
+      return;
+    }
+    if (old != null) {
+      old.setBoard(null, -1);
+    }
+    if (piece != null) {
+      piece.setBoard(this, index);
+    }
+    repaintCell(index);
+    return;
+  }
+
+  /**
+   * Outline a square as the place for a hinted tile
+   * <p>
+   * The outline is drawn over whatever is in the square. If the tile needs
+   * turning first the number of turns is written in the square, if the tile
+   * in the square does not belong there that is written instead.
+   * 
+   * @param cell  The row-major index of the square, -1 to remove the hint
+   * @param turns The number of right clicks the tile needs before it goes in
+   * @param wrong True if the tile in the square has to be moved off it
+   * 
+   * @since 5.0
+   */
+  public void setHint(int cell, int turns, boolean wrong) {
+    if (hintCell >= 0) {
+      this.repaint(cellBounds(hintCell));
+    }
+    hintCell = cell;
+    hintTurns = turns;
+    hintWrong = wrong;
+    if (hintCell >= 0) {
+      this.repaint(cellBounds(hintCell));
+    }
+    return;
+  }
+
+  /**
+   * Remove the hint outline, if there is one
+   * 
+   * @since 5.0
+   */
+  public void clearHint() {
+    setHint(-1, 0, false);
+    return;
+  }
+
+  /**
+   * Zoom a virtual board with the mouse wheel
+   * <p>
+   * Turning the wheel with Control held changes the size of the squares by
+   * zoomStep per notch. The square under the mouse stays under the mouse, the
+   * scroll pane is moved to keep it there. Without Control the event is passed
+   * on to the scroll pane so the wheel still scrolls the board.
+   * 
+   * @param e The mouse wheel event
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void mouseWheelMoved(MouseWheelEvent e) {
+    if ((e.getModifiersEx() & InputEvent.CTRL_DOWN_MASK) == 0) {
+      Container parent = getParent();
+      if (parent != null) {
+        parent.dispatchEvent(SwingUtilities.convertMouseEvent(this, e, parent));
+      }
+      return;
+    }
+    int oldSize = cellSize;
+    setCellSize(cellSize - (e.getWheelRotation() * zoomStep));
+    JViewport viewport = (JViewport) SwingUtilities
+        .getAncestorOfClass(JViewport.class, this);
+    if (viewport != null && cellSize != oldSize) {
+      Point view = viewport.getViewPosition();
+      view.x += (e.getX() * cellSize / oldSize) - e.getX();
+      view.y += (e.getY() * cellSize / oldSize) - e.getY();
+      Dimension extent = viewport.getExtentSize();
+      Dimension size = viewport.getViewSize();
+      view.x = Math.max(0, Math.min(view.x, size.width - extent.width));
+      view.y = Math.max(0, Math.min(view.y, size.height - extent.height));
+      viewport.setViewPosition(view);
+    }
+    return;
+  }
+
+  /**
+   * Change the size of the squares of a virtual board
+   * <p>
+   * The size is kept between minCellSize and maxCellSize. The window is laid
+   * out again right away so the scroll pane knows the new size of the board
+   * before anything else uses it. A board with a component per square cannot
+   * be zoomed, its pieces are always 100x100.
+   * 
+   * @param size The new size of a square in pixels
+   * 
+   * @since 5.0
+   */
+  public void setCellSize(int size) {
+    size = Math.max(minCellSize, Math.min(size, maxCellSize));
+    if (!virtual || size == cellSize) {
+      return;
+    }
+    cellSize = size;
+    this.setPreferredSize(
+        new Dimension(columns * cellSize, rows * cellSize));
+    this.invalidate();
+    Container top = getTopLevelAncestor();
+    if (top != null) {
+      top.validate();
+    } else {
+      this.revalidate();
+    }
+    this.repaint();
+    return;
+  }
+
   /**
    * Draw the lines onto the board to make a grid.
    * <p>
    * This method draws the grid lines. This is a method from JPanel and overrode
-   * here. 3 Black lines are drawn 100px apart down the horizontal and vertical
-   * axis of the Board object. This is done through the Graphics.drawLine method
-   * which takes 4 coordinates in order to draw the line on the current JPanel.
+   * here. Black lines are drawn 100px apart down the horizontal and vertical
+   * axis of the Board object, one between each row and each column. This is
+   * done through the Graphics.drawLine method which takes 4 coordinates in
+   * order to draw the line on the current JPanel.
+   * <p>
+   * A virtual board first paints the pieces of the squares that intersect the
+   * clip, and only draws the grid lines inside the clip, so a repaint costs
+   * the same however large the board is.
    * 
    * @param g The graphics object of the JPanel
    * 
@@ -177,11 +551,94 @@ public class Board extends JPanel {
   @Override
   protected void paintComponent(Graphics g) {
     super.paintComponent(g);
+    int width = columns * cellSize;
+    int height = rows * cellSize;
+    int firstColumn = 0;
+    int firstRow = 0;
+    int lastColumn = columns - 1;
+    int lastRow = rows - 1;
+    Rectangle clip = g.getClipBounds();
+    if (virtual && clip != null) {
+      firstColumn = Math.max(clip.x / cellSize, 0);
+      firstRow = Math.max(clip.y / cellSize, 0);
+      lastColumn = Math.min((clip.x + clip.width - 1) / cellSize, columns - 1);
+      lastRow = Math.min((clip.y + clip.height - 1) / cellSize, rows - 1);
+    }
+    if (virtual) {
+      GraphicsConfiguration gc = getGraphicsConfiguration();
+      for (int row = firstRow; row <= lastRow; row++) {
+        for (int column = firstColumn; column <= lastColumn; column++) {
+          Piece piece = positions.get((row * columns) + column);
+          if (piece != null) {
+            piece.paintTile(g, column * cellSize, row * cellSize, cellSize,
+                gc);
+          }
+        }
+      }
+    }
     g.setColor(Color.black);
-    for (int i = 100; i < 400; i += 100) {
-      g.drawLine(i, 0, i, 400);
-      g.drawLine(0, i, 400, i);
+    for (int i = Math.max(firstColumn, 1); i <= lastColumn; i++) {
+      g.drawLine(i * cellSize, 0, i * cellSize, height);
+    }
+    for (int i = Math.max(firstRow, 1); i <= lastRow; i++) {
+      g.drawLine(0, i * cellSize, width, i * cellSize);
+    }
+    return;
+  }
+
+  /**
+   * Paint the pieces, then the hint outline on top of them
+   * 
+   * @param g The graphics object of the JPanel
+   * 
+   * @since 5.0
+   */
+  @Override
+  protected void paintChildren(Graphics g) {
+    super.paintChildren(g);
+    if (hintCell < 0) {
+      return;
     }
+    Rectangle bounds = cellBounds(hintCell);
+    Graphics2D g2 = (Graphics2D) g.create();
+    g2.setColor(hintColor);
+    g2.setStroke(new BasicStroke(hintStroke));
+    g2.drawRect(bounds.x + (hintStroke / 2), bounds.y + (hintStroke / 2),
+        bounds.width - hintStroke, bounds.height - hintStroke);
+    if (hintWrong || hintTurns > 0) {
+      g2.setFont(g2.getFont().deriveFont(Font.BOLD));
+      g2.drawString(hintWrong ? "Wrong tile" : "Rotate x" + hintTurns,
+          bounds.x + (2 * hintStroke),
+          bounds.y + bounds.height - (2 * hintStroke));
+    }
+    g2.dispose();
     return;
   }
+
+  /**
+   * The component of one square of a board that is not virtual
+   * <p>
+   * It has no mouse listeners, so clicks on it go to the board.
+   */
+  private class Square extends JComponent {
+
+    // Default serialVersion (required for extension of JComponent)
+    private static final long serialVersionUID = 1L;
+
+    // The row-major index of the square
+    private final int index;
+
+    Square(int index) {
+      this.index = index;
+    }
+
+    // Paint the piece the positions list has in this square
+    @Override
+    protected void paintComponent(Graphics g) {
+      Piece piece = positions.get(index);
+      if (piece != null && piece.isVisible()) {
+        piece.paintTile(g, 0, 0, getWidth(), getGraphicsConfiguration());
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,229 @@
+
+import java.util.Arrays;
+
+/**
+ * Which squares of a board hold a tile, and which of those tiles draw the
+ * maze in their square, packed one bit per square into arrays of longs.
+ * <p>
+ * Squares are numbered row-major and square i is bit i % 64 of word i / 64 in
+ * both bit sets. The maze fills the first squares of the board, one per tile,
+ * and the squares after those are empty in the maze. When a square is filled
+ * or its tile turned, the EdgeSignature of the tile is compared with the
+ * maze's signature there once and only the answer is kept.
+ * <p>
+ * The number of filled squares and of squares whose tile draws the maze are
+ * kept up to date as squares change. Filling, emptying or changing one square
+ * only touches its own bits, so every change is constant time however large
+ * the board is, and checking if the tiles are correct is a single compare.
+ * <p>
+ * The GameEngine keeps one of these up to date with every move.
+ * 
+ * @see EdgeSignature
+ * @see GameEngine
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class BoardBits {
+
+  // Number of squares down and across the board, and in total
+  private final int rows;
+  private final int columns;
+  private final int cells;
+
+  // One bit per square, set if it holds a tile
+  private final long[] occupied;
+
+  // One bit per square, set if it holds a tile that draws the maze there
+  private final long[] correct;
+
+  // The signature of the maze in each square it fills
+  private final long[] maze;
+
+  // Number of filled squares
+  private int filled = 0;
+
+  // Number of squares whose tile draws the maze there
+  private int drawn = 0;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Every square starts empty.
+   * 
+   * @param rows    The number of squares down the board
+   * @param columns The number of squares across the board
+   * @param maze    The signature of the maze in each of the first squares of
+   *                the board (used as is, not copied)
+   * 
+   * @throws IllegalArgumentException If the maze has more squares than the
+   *                                  board
+   * 
+   * @since 5.0
+   */
+  public BoardBits(int rows, int columns, long[] maze) {
+    if ((long) rows * columns < maze.length) {
+      throw new IllegalArgumentException("A " + rows + "x" + columns
+          + " board cannot hold a maze of " + maze.length + " squares");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.maze = maze;
+    cells = rows * columns;
+    occupied = new long[(cells + Long.SIZE - 1) / Long.SIZE];
+    correct = new long[occupied.length];
+    return;
+  }
+
+  /**
+   * Getter for the number of squares down the board
+   * 
+   * @return rows
+   * 
+   * @since 5.0
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Getter for the number of squares across the board
+   * 
+   * @return columns
+   * 
+   * @since 5.0
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Getter for the number of squares on the board
+   * 
+   * @return rows * columns
+   * 
+   * @since 5.0
+   */
+  public int getCellCount() {
+    return cells;
+  }
+
+  /**
+   * Checks if a square holds a tile
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @return True if the square is filled
+   * 
+   * @since 5.0
+   */
+  public boolean isOccupied(int cell) {
+    return (occupied[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Fill a square, or change the edges of the tile in it
+   * 
+   * @param cell      The row-major index of the square
+   * @param signature The EdgeSignature of the tile at its current rotation
+   * 
+   * @since 5.0
+   */
+  public void set(int cell, long signature) {
+    if (!isOccupied(cell)) {
+      occupied[cell >>> 6] |= 1L << cell;
+      filled++;
+    }
+    boolean draws = cell < maze.length && signature == maze[cell];
+    if (draws != fits(cell)) {
+      correct[cell >>> 6] ^= 1L << cell;
+      drawn += draws ? 1 : -1;
+    }
+    return;
+  }
+
+  /**
+   * Empty a square
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @since 5.0
+   */
+  public void clear(int cell) {
+    if (!isOccupied(cell)) {
+      return;
+    }
+    if (fits(cell)) {
+      drawn--;
+    }
+    filled--;
+    occupied[cell >>> 6] &= ~(1L << cell);
+    correct[cell >>> 6] &= ~(1L << cell);
+    return;
+  }
+
+  /**
+   * Empty every square
+   * 
+   * @since 5.0
+   */
+  public void clearAll() {
+    Arrays.fill(occupied, 0);
+    Arrays.fill(correct, 0);
+    filled = 0;
+    drawn = 0;
+    return;
+  }
+
+  /**
+   * Count the filled squares
+   * 
+   * @return The number of squares holding a tile
+   * 
+   * @since 5.0
+   */
+  public int countFilled() {
+    return filled;
+  }
+
+  /**
+   * Checks if the tile in a square draws the maze there
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @return True if the square is part of the maze and holds a tile with the
+   *         maze's signature there
+   * 
+   * @since 5.0
+   */
+  public boolean fits(int cell) {
+    return (correct[cell >>> 6] & (1L << cell)) != 0;
+  }
+
+  /**
+   * Checks if every tile on the board draws the maze in its square
+   * <p>
+   * Empty squares are skipped, so this is true for a partly filled board
+   * that has no mistakes yet.
+   * 
+   * @return True if no filled square differs from the maze
+   * 
+   * @since 5.0
+   */
+  public boolean isCorrect() {
+    return drawn == filled;
+  }
+
+  /**
+   * Checks if every square of the maze holds a tile that draws it
+   * <p>
+   * The squares after the maze must be empty.
+   * 
+   * @return True if the board shows the whole maze
+   * 
+   * @since 5.0
+   */
+  public boolean isSolved() {
+    return drawn == maze.length && filled == maze.length;
+  }
+}
\ No newline at end of file
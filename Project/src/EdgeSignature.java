@@ -0,0 +1,258 @@
+
+/**
+ * Edge signatures of tiles, used to check if a tile draws the maze in a
+ * square.
+ * <p>
+ * Every tile is drawn on a grid of 25px cells, 4 across and 4 down (0-25,
+ * 25-50, 50-75 and 75-100 each way). A signature has one bit for every cell
+ * side the tile draws a wall on, packed into a long: the 5 horizontal grid
+ * lines of 4 cell sides each (bits 0 - 19, line y * 4 + cell x) then the 5
+ * vertical grid lines (bits 20 - 39, 20 + line x * 4 + cell y). A wall sets
+ * every cell side it covers part of. Coordinates of 1 and 99 count as 0 and
+ * 100, some tiles draw their outer walls 1px inside the edge, and a line
+ * between grid lines counts on the nearest one.
+ * <p>
+ * The walls along a side and the walls that meet it are both in the
+ * signature, side gives them for one side. The puzzle is the maze the tiles
+ * were cut from, so the game counts a layout as correct when every tile draws
+ * exactly the walls the maze has in its square. Comparing whole signatures
+ * checks that with one compare per square.
+ * <p>
+ * Without the maze there are only the rules every maze cut into tiles keeps:
+ * a wall on the edge between two squares is drawn by one of the two tiles,
+ * never both (fits), and the outside of the board is walled apart from the
+ * entrance and the exit (gaps). A PuzzleSolver works from these. They do not
+ * pick out the maze, a maze has dead ends on the edges between tiles as well
+ * as inside them, and the tiles of default.mze also make other closed mazes.
+ * 
+ * @see PieceData
+ * @see BoardBits
+ * @see PuzzleSolver
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class EdgeSignature {
+
+  // The sides of a tile
+  public static final int top = 0;
+  public static final int right = 1;
+  public static final int bottom = 2;
+  public static final int left = 3;
+
+  // Tile coordinates run from 0 to this value
+  private static final int tileSize = 100;
+
+  // Each side is split into 4 quarters of this length (the grid cells)
+  private static final int quarter = tileSize / 4;
+
+  // Cells across each side of a tile
+  private static final int cellsPerSide = tileSize / quarter;
+
+  // The bits of side that are quarters along it
+  private static final int alongMask = (1 << cellsPerSide) - 1;
+
+  // The first bit of the vertical grid lines
+  private static final int verticalBits = (cellsPerSide + 1) * cellsPerSide;
+
+  // Coordinates this close to an edge count as on the edge
+  private static final int edgeSlack = 1;
+
+  /**
+   * Signature of a tile at a rotation
+   * 
+   * @param data  The tile
+   * @param turns The number of clockwise quarter turns (0 - 3)
+   * 
+   * @return The walls of the tile on the grid
+   * 
+   * @since 5.0
+   */
+  public static long of(PieceData data, int turns) {
+    return of(data.getCoords(turns));
+  }
+
+  /**
+   * Signature of a tile from its line coordinates
+   * <p>
+   * Lines that are neither horizontal nor vertical are left out.
+   * 
+   * @param coords The coordinates, 4 per line (x1, y1, x2, y2)
+   * 
+   * @return The walls of the tile on the grid
+   * 
+   * @since 5.0
+   */
+  public static long of(int[] coords) {
+    long signature = 0;
+    for (int i = 0; i + 3 < coords.length; i += 4) {
+      int x1 = snap(coords[i]);
+      int y1 = snap(coords[i + 1]);
+      int x2 = snap(coords[i + 2]);
+      int y2 = snap(coords[i + 3]);
+      if (y1 == y2) {
+        signature |= quarters(x1, x2) << (gridLine(y1) * cellsPerSide);
+      } else if (x1 == x2) {
+        signature |= quarters(y1, y2)
+            << (verticalBits + (gridLine(x1) * cellsPerSide));
+      }
+    }
+    return signature;
+  }
+
+  /**
+   * The walls on and meeting one side of a signature
+   * <p>
+   * Both go in increasing x (top and bottom) or increasing y (left and
+   * right), so the two sides that face each other across a square edge line
+   * up bit for bit.
+   * 
+   * @param signature The signature of a tile
+   * @param side      top, right, bottom or left
+   * 
+   * @return Bits 0 - 3 for the quarters of the side a wall runs along, bits 4
+   *         - 6 for the points 25, 50 and 75 where a wall inside the tile
+   *         meets the side
+   * 
+   * @since 5.0
+   */
+  public static int side(long signature, int side) {
+    boolean across = side == top || side == bottom;
+    int line = side == top || side == left ? 0 : cellsPerSide;
+    int cell = line == 0 ? 0 : cellsPerSide - 1;
+    int along = across ? line * cellsPerSide
+        : verticalBits + (line * cellsPerSide);
+    int bits = (int) (signature >>> along) & ((1 << cellsPerSide) - 1);
+    for (int point = 1; point < cellsPerSide; point++) {
+      int meeting = across ? verticalBits + (point * cellsPerSide) + cell
+          : (point * cellsPerSide) + cell;
+      if ((signature & (1L << meeting)) != 0) {
+        bits |= 1 << (cellsPerSide + point - 1);
+      }
+    }
+    return bits;
+  }
+
+  /**
+   * The quarters each side of a signature has a wall along
+   * 
+   * @param signature The signature of a tile
+   * 
+   * @return Bits side * 4 to side * 4 + 3 for each side, as in bits 0 - 3 of
+   *         side
+   * 
+   * @since 5.0
+   */
+  public static int edges(long signature) {
+    int edges = 0;
+    for (int side = top; side <= left; side++) {
+      edges |= (side(signature, side) & alongMask) << (side * cellsPerSide);
+    }
+    return edges;
+  }
+
+  /**
+   * Checks if two tiles can be neighbours across an edge
+   * 
+   * @param a    The signature of one tile
+   * @param side The side of a the edge is on
+   * @param b    The signature of the tile across the edge
+   * 
+   * @return True if no quarter of the edge has a wall drawn by both tiles
+   * 
+   * @since 5.0
+   */
+  public static boolean fits(long a, int side, long b) {
+    return (side(a, side) & side(b, opposite(side)) & alongMask) == 0;
+  }
+
+  /**
+   * Count the quarters of some sides of a tile that have no wall
+   * 
+   * @param signature The signature of a tile
+   * @param sides     One bit (1 << side) for each side to count
+   * 
+   * @return The number of open quarters along those sides
+   * 
+   * @since 5.0
+   */
+  public static int gaps(long signature, int sides) {
+    int edges = edges(signature);
+    int gaps = 0;
+    for (int side = top; side <= left; side++) {
+      if ((sides & (1 << side)) != 0) {
+        gaps += cellsPerSide
+            - Integer.bitCount((edges >>> (side * cellsPerSide)) & alongMask);
+      }
+    }
+    return gaps;
+  }
+
+  /**
+   * The side across an edge from a side
+   * 
+   * @param side top, right, bottom or left
+   * 
+   * @return bottom for top, left for right and so on
+   * 
+   * @since 5.0
+   */
+  public static int opposite(int side) {
+    return (side + 2) & 3;
+  }
+
+  /**
+   * Move a coordinate that is 1px from an edge onto the edge
+   * 
+   * @param value The coordinate
+   * 
+   * @return 0, 100 or the coordinate unchanged
+   * 
+   * @since 5.0
+   */
+  private static int snap(int value) {
+    if (value <= edgeSlack) {
+      return 0;
+    }
+    if (value >= tileSize - edgeSlack) {
+      return tileSize;
+    }
+    return value;
+  }
+
+  /**
+   * The grid line nearest to a coordinate
+   * 
+   * @param value A snapped coordinate
+   * 
+   * @return 0 - 4
+   * 
+   * @since 5.0
+   */
+  private static int gridLine(int value) {
+    int line = (value + (quarter / 2)) / quarter;
+    return Math.max(0, Math.min(cellsPerSide, line));
+  }
+
+  /**
+   * The cells along a grid line covered by a wall
+   * 
+   * @param from One end of the wall along the line
+   * @param to   The other end
+   * 
+   * @return One bit per cell the wall covers part of
+   * 
+   * @since 5.0
+   */
+  private static long quarters(int from, int to) {
+    int low = Math.min(from, to);
+    int high = Math.max(from, to);
+    long bits = 0;
+    for (int q = 0; q < cellsPerSide; q++) {
+      if (Math.min(high, (q + 1) * quarter) > Math.max(low, q * quarter)) {
+        bits |= 1L << q;
+      }
+    }
+    return bits;
+  }
+}
\ No newline at end of file
@@ -1,14 +1,12 @@
 
 import java.awt.*;
-import java.util.ArrayList;
-import java.util.Collections;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseEvent;
 import java.awt.event.MouseListener;
-import java.security.SecureRandom;
 
 import javax.swing.*;
 
@@ -18,12 +16,25 @@ import javax.swing.*;
  * The GameController object is the main controller for the Game. It handles all
  * piece movement. As well as button presses.
  * <p>
+ * The state of the game is kept in a GameEngine, not in the Swing components.
+ * Clicks and buttons are turned into engine moves, and the controller listens
+ * to the engine to move the Piece objects to match. There is one Piece per
+ * tile, Piece N always shows tile N.
+ * <p>
  * This object creates and places the 2 HoldingArea objects and the board. When
  * the HoldingArea objects are created they need to be populated with the
  * correct pieces. The PieceData list from the MzeFileReader must be passed in
  * to the GameController upon construction so the pieces can be created
  * correctly.
  * <p>
+ * The size of the board comes from the puzzle. By default the board is as close
+ * to square as possible while holding every tile (16 tiles is a 4x4 board).
+ * The tiles are split between the 2 holding areas. The board and the holding
+ * areas are placed in scroll panes, these are the same size as their contents
+ * for small puzzles and scroll for puzzles that do not fit in the window.
+ * Boards with more than virtualBoardCells squares use the virtual rendering
+ * mode of Board, which paints only the visible squares and can be zoomed.
+ * <p>
  * GameController creates a boardFrame object to encompass the board. This is
  * purely for visual reasons. This is a lighter gray than the GameArea
  * background so it makes the board stand out rather than having 2 dark colors
@@ -35,11 +46,17 @@ import javax.swing.*;
  * user can also click a piece on the board, then click an open space in any
  * holding area to move it back. Click a piece on the board and then an open
  * spot on the board to move the selected piece.
+ * <p>
+ * The Hint button asks a HintFinder for the next correct move. Its piece is
+ * selected and its square outlined on the board, or if a tile is in the wrong
+ * square that tile is selected and its square marked. The hint goes away as
+ * soon as the game changes.
  * 
  * @see GameWindow
  * @see HoldingArea
  * @see Menu
  * @see Board
+ * @see GameEngine
  * 
  * @author Sebastian Colwell
  * @author Zach Kingsmore
@@ -50,7 +67,7 @@ import javax.swing.*;
  * 
  */
 public class GameController extends JPanel
-    implements ActionListener, MouseListener {
+    implements ActionListener, MouseListener, GameListener {
 
   // Default serialVersion (required for extension of JPanel)
   private static final long serialVersionUID = 1L;
@@ -61,29 +78,52 @@ public class GameController extends JPanel
   // Light Grey color used for the "container" frames for Holding area & board
   private static final Color lgreyBackground = Color.decode("#4A4A4A");
 
+  // Largest the board frame gets before it scrolls (fits the 900x1000 window)
+  private static final Dimension maxBoardView = new Dimension(560, 800);
+
+  // Largest a holding area gets before it scrolls
+  private static final Dimension maxHoldingView = new Dimension(400, 920);
+
+  // Boards with more squares than this paint their pieces themselves
+  static final int virtualBoardCells = 1024;
+
+  // Pixels scrolled per click of a scroll bar arrow or mouse wheel notch
+  private static final int scrollIncrement = 25;
+
   // The currently selected piece (player clicked this piece)
   private Piece selectedPiece = null;
 
   // GUI Components instantiated within this JPanel
   private Menu gameMenu = new Menu();
-  private Board gameBoard = new Board();
+  private Board gameBoard;
   private HoldingArea LHoldingArea = new HoldingArea();
   private HoldingArea RHoldingArea = new HoldingArea();
 
-  // The current data being displayed on the GUI
-  private List<PieceData> pieceData = new ArrayList<PieceData>();
+  // The state of the game being displayed on the GUI
+  private GameEngine engine;
+
+  // One Piece per tile, reused by every New Game and Reset (null until the
+  // tile is first shown)
+  private Piece[] pieces;
+
+  // Slots below this are in the left holding area, the rest in the right
+  private int leftCount;
 
-  // Initial data from the start of this game
-  private List<PieceData> initialData = new ArrayList<PieceData>();
+  // Finds hints for the engine
+  private HintFinder hintFinder;
+
+  // Saves the game as it is played (null to not save)
+  private AutoSaver autoSaver;
+
+  // The hint being shown (null if none)
+  private Hint hint = null;
 
   /**
    * Class Constructor
    * <p>
    * The constructor takes in the PieceData to construct the pieces during the
-   * setup. The background is set to be a dark grey and a GridBagLayout is used
-   * to position the menu, board, and holding areas.
-   * <p>
-   * The constructor calls the setupController method.
+   * setup. The board is sized to fit every tile, as close to square as
+   * possible.
    * 
    * @param PieceData The data read in from the default.mze file used to create
    *                  the maze graphics
@@ -93,7 +133,33 @@ public class GameController extends JPanel
    * @since 4.0
    */
   public GameController(List<PieceData> PieceData) {
-    pieceData = PieceData;
+    this(PieceData, rowsFor(PieceData.size()), columnsFor(PieceData.size()));
+    return;
+  }
+
+  /**
+   * Class Constructor for a given board size
+   * <p>
+   * The constructor takes in the PieceData to construct the pieces during the
+   * setup. The background is set to be a dark grey and a GridBagLayout is used
+   * to position the menu, board, and holding areas.
+   * <p>
+   * The constructor creates the GameEngine, then calls the setupController
+   * method.
+   * 
+   * @param PieceData The data used to create the maze graphics
+   * @param rows      The number of squares down the board
+   * @param columns   The number of squares across the board
+   * 
+   * @throws IllegalArgumentException If the board has fewer squares than
+   *                                  there are tiles
+   * 
+   * @since 5.0
+   */
+  public GameController(List<PieceData> PieceData, int rows, int columns) {
+    engine = new GameEngine(PieceData, rows, columns);
+    gameBoard = new Board(rows, columns,
+        (long) rows * columns > virtualBoardCells);
     this.setBackground(dgreyBackground);
     this.setLayout(new GridBagLayout());
     setupController();
@@ -101,98 +167,90 @@ public class GameController extends JPanel
   }
 
   /**
-   * Setup method for the controller
-   * <p>
-   * Randomizes the pieces, then copies that into the initial data. Then the
-   * menu, board, holding areas, and pieces are added to the controller
+   * The number of columns for the squarest board that holds the tiles
    * 
-   * @since 4.0
+   * @param tiles The number of tiles in the puzzle
+   * 
+   * @return The square root of tiles, rounded up
+   * 
+   * @since 5.0
    */
-  private void setupController() {
-    randomizePositions();
-    randomizeRotations();
-    copyData(initialData, pieceData);
-    addMenu();
-    addBoard();
-    addHoldingAreas();
-    setPieces();
-    return;
+  public static int columnsFor(int tiles) {
+    int columns = (int) Math.ceil(Math.sqrt(tiles));
+    return Math.max(columns, 1);
   }
 
   /**
-   * Randomly shuffle the positions of the pieces
-   * <p>
-   * This utilizes the SecureRandom package to get as close to true random as
-   * possible.
-   * <p>
-   * The list shuffle is in-place.
+   * The number of rows for the squarest board that holds the tiles
    * 
-   * @since 4.0
+   * @param tiles The number of tiles in the puzzle
+   * 
+   * @return Enough rows of columnsFor(tiles) squares to hold every tile
+   * 
+   * @since 5.0
    */
-  private void randomizePositions() {
-    SecureRandom secureRandom = new SecureRandom();
-    secureRandom.setSeed(System.currentTimeMillis());
-    for (int i = 0; i < pieceData.size(); i++) {
-      int randIndex = secureRandom.nextInt(pieceData.size());
-      PieceData tmp = pieceData.get(randIndex);
-      pieceData.set(randIndex, pieceData.get(i));
-      pieceData.set(i, tmp);
-    }
-    return;
+  public static int rowsFor(int tiles) {
+    int columns = columnsFor(tiles);
+    return Math.max((tiles + columns - 1) / columns, 1);
   }
 
   /**
-   * Randomize the rotations of each PieceData object.
-   * <p>
-   * The rotations are as follows: 0 = 90 deg 1 = 180 deg 2 = 270 deg 3 = 360
-   * deg (No rotation)
+   * Setup method for the controller
    * <p>
-   * Only 4 pieces can have no rotation, and at least 1 piece must be 90, 180,
-   * and 270 degrees rotated.
+   * The menu, board and holding areas are added to the controller. Starting a
+   * new game on the engine randomizes the tiles, which puts the pieces into the
+   * holding areas.
    * <p>
-   * SecureRandom is utilized to get as close to true random as possible
+   * The Piece of a tile is only created when the tile is first shown (see
+   * tilePiece), every later game reuses it. Creating a Piece component is the
+   * slowest part of building the game, so a large puzzle starts in the time it
+   * takes to create the pieces that are in view.
    * 
    * @since 4.0
    */
-  private void randomizeRotations() {
-    SecureRandom secureRandom = new SecureRandom();
-    secureRandom.setSeed(System.currentTimeMillis());
-    int r0count = 0;
-    int r90 = secureRandom.nextInt(pieceData.size());
-    int r180 = secureRandom.nextInt(pieceData.size());
-    int r270 = secureRandom.nextInt(pieceData.size());
-    for (int i = 0; i < pieceData.size(); i++) {
-      int rotation = secureRandom.nextInt(4);
-      rotation = i == r90 ? 0 : rotation;
-      rotation = i == r180 ? 1 : rotation;
-      rotation = i == r270 ? 2 : rotation;
-      if (rotation == 3 && r0count == 4) {
-        rotation = secureRandom.nextInt(3);
-      } else if (rotation == 3) {
-        r0count++;
-      }
-      pieceData.get(i).setRotation(rotation);
-    }
+  private void setupController() {
+    pieces = new Piece[engine.getTileCount()];
+    leftCount = (pieces.length + 1) / 2;
+    addMenu();
+    addBoard();
+    addHoldingAreas();
+    engine.addGameListener(this);
+    engine.newGame();
+    hintFinder = new HintFinder(engine);
     return;
   }
 
   /**
-   * Create a copy of a piece data list
-   * <p>
-   * The PieceData list requires a special copy method to ensure a deep-copy
-   * Each PieceData object must be cloned into the copy list
+   * Getter for the engine holding the state of the game
+   * 
+   * @return engine
+   * 
+   * @since 5.0
+   */
+  public GameEngine getEngine() {
+    return engine;
+  }
+
+  /**
+   * Set where the game is saved
    * <p>
-   * This is used to store the initial data
+   * From here on an AutoSaver saves the game in the background shortly after
+   * every burst of moves, and saveGame saves whatever is left.
    * 
-   * @param dst Destination Piece Data list (copy of source)
-   * @param src Original piece data list to be copied
+   * @param saveFile The .mzs file to save to, null to not save
    * 
-   * @since 4.0
+   * @see SaveFile
+   * 
+   * @since 5.0
    */
-  private void copyData(List<PieceData> dst, List<PieceData> src) {
-    dst.clear();
-    for (PieceData p : src) {
-      dst.add(p.clone());
+  public void setSaveFile(Path saveFile) {
+    if (autoSaver != null) {
+      engine.removeGameListener(autoSaver);
+      autoSaver = null;
+    }
+    if (saveFile != null) {
+      autoSaver = new AutoSaver(engine, saveFile, this::showSaveFailure);
+      engine.addGameListener(autoSaver);
     }
     return;
   }
@@ -218,6 +276,9 @@ public class GameController extends JPanel
     this.add(gameMenu, c);
     gameMenu.getNewGame().addActionListener(this);
     gameMenu.getReset().addActionListener(this);
+    gameMenu.getHint().addActionListener(this);
+    gameMenu.getUndo().addActionListener(this);
+    gameMenu.getRedo().addActionListener(this);
     gameMenu.getQuit().addActionListener(this);
     return;
   }
@@ -234,9 +295,12 @@ public class GameController extends JPanel
    * within the frame, then places the frame within the controller
    * <p>
    * The frame is never used again so no need for an instance or class variable
+   * <p>
+   * The frame is placed in a scroll pane so boards too large for the window
+   * can be scrolled.
    * 
    * @see Board
-   * 
+   *
    * @since 4.0
    */
   private void addBoard() {
@@ -246,13 +310,14 @@ public class GameController extends JPanel
     GridBagConstraints boardConstraints = new GridBagConstraints();
     boardConstraints.insets = new Insets(15, 15, 15, 15);
     frame.add(gameBoard, boardConstraints);
+    JScrollPane scroll = createScrollPane(frame, maxBoardView);
     GridBagConstraints frameConstraints = new GridBagConstraints();
     frameConstraints.anchor = GridBagConstraints.NORTH;
     frameConstraints.weighty = 0.5;
     frameConstraints.weightx = 0.5;
     frameConstraints.gridx = 1;
     frameConstraints.gridy = 1;
-    this.add(frame, frameConstraints);
+    this.add(scroll, frameConstraints);
     gameBoard.addMouseListener(this);
     return;
   }
@@ -265,7 +330,9 @@ public class GameController extends JPanel
    * <p>
    * The gridx is changed inbetween adding the holding areas since the board
    * occupies gridx = 1, the left holding area goes into slot 0 and the right in
-   * slot 2.
+   * slot 2. Each holding area is placed in a scroll pane for puzzles with more
+   * tiles than fit in the window. The holding areas paint their own pieces, so
+   * this controller listens for clicks on the holding areas themselves.
    * 
    * @see HoldingArea
    * 
@@ -277,22 +344,49 @@ public class GameController extends JPanel
     c.gridheight = 2;
     c.weightx = 0.25;
     c.gridx = 0;
-    this.add(LHoldingArea, c);
+    this.add(createScrollPane(LHoldingArea, maxHoldingView), c);
     c.gridx = 2;
-    this.add(RHoldingArea, c);
+    this.add(createScrollPane(RHoldingArea, maxHoldingView), c);
+    LHoldingArea.addMouseListener(this);
+    RHoldingArea.addMouseListener(this);
     return;
   }
 
   /**
-   * Reset the pieces inside the holding area to what's inside the pieceData
-   * list
+   * Wrap a component in a borderless scroll pane
+   * 
+   * @param view    The component to scroll
+   * @param maxView The largest size before the component scrolls
+   * 
+   * @return The scroll pane holding the component
+   * 
+   * @see CappedScrollPane
+   * 
+   * @since 5.0
+   */
+  private JScrollPane createScrollPane(JComponent view, Dimension maxView) {
+    JScrollPane scroll = new CappedScrollPane(view, maxView);
+    scroll.setBorder(BorderFactory.createEmptyBorder());
+    scroll.getViewport().setBackground(dgreyBackground);
+    scroll.getVerticalScrollBar().setUnitIncrement(scrollIncrement);
+    scroll.getHorizontalScrollBar().setUnitIncrement(scrollIncrement);
+    return scroll;
+  }
+
+  /**
+   * Reset the pieces inside the holding area to the state of the engine
    * <p>
-   * This method first clears the list of pieces inside the holding areas. Then
-   * populates that list with new pieces. Each piece will get a PieceData object
-   * that defines the lines to draw on the piece.
+   * This method first clears the board and the list of pieces inside the
+   * holding areas. Then populates the holding areas with the piece (or a
+   * blank) for each slot of the engine, the first half of the slots go to the
+   * left holding area and the rest to the right. Any tiles the engine has on
+   * the board are put on the board.
    * <p>
-   * Each piece added to the holding area will have a mouse listener added to
-   * it, and a pointer to which holding area it is being assigned to.
+   * The Piece objects are created once by tilePiece (each has this controller
+   * as its mouse listener and shows its tile) and reused here. Any selected
+   * piece is deselected since the game restarts. Each holding area gets all of
+   * its slots at once so it is only laid out one time, and only makes the
+   * pieces of the slots it paints.
    * 
    * @see Piece
    * @see HoldingArea
@@ -300,24 +394,119 @@ public class GameController extends JPanel
    * @since 4.0
    */
   private void setPieces() {
+    deselectPiece();
+    gameBoard.clearBoard();
     LHoldingArea.clearPieces();
     RHoldingArea.clearPieces();
-    for (int i = 0; i < 16; i++) {
-      Piece piece = new Piece();
-      piece.drawImage(pieceData.get(i));
-      piece.addMouseListener(this);
-      if (i < 8) {
-        piece.setHoldingArea(LHoldingArea);
-        LHoldingArea.addPiece(piece);
-
-      } else {
-        piece.setHoldingArea(RHoldingArea);
-        RHoldingArea.addPiece(piece);
+    LHoldingArea.addSlots(leftCount, slot -> slotPiece(slot));
+    RHoldingArea.addSlots(pieces.length - leftCount,
+        slot -> slotPiece(leftCount + slot));
+    for (int cell = 0; cell < engine.getCellCount(); cell++) {
+      if (engine.getTileAtCell(cell) != GameEngine.none) {
+        cellChanged(cell, engine.getTileAtCell(cell));
       }
     }
     return;
   }
 
+  /**
+   * The piece to show in a holding slot
+   * 
+   * @param slot The index of the slot in the engine
+   * 
+   * @return The piece of the tile in the slot, or a new blank if it is empty
+   * 
+   * @since 5.0
+   */
+  private Piece slotPiece(int slot) {
+    int tile = engine.getTileAtSlot(slot);
+    if (tile == GameEngine.none) {
+      return new Piece(lgreyBackground);
+    }
+    return tilePiece(tile);
+  }
+
+  /**
+   * The Piece of a tile, created the first time it is needed
+   * 
+   * @param tile The index of the tile
+   * 
+   * @return The piece showing the tile
+   * 
+   * @since 5.0
+   */
+  private Piece tilePiece(int tile) {
+    if (pieces[tile] == null) {
+      pieces[tile] = new Piece();
+      pieces[tile].drawImage(engine.getTile(tile));
+      pieces[tile].addMouseListener(this);
+    }
+    return pieces[tile];
+  }
+
+  /**
+   * The Piece of a tile, with its holding slot set if the tile is held
+   * <p>
+   * A piece made only by tilePiece does not know its holding slot until the
+   * holding area shows it, so a held piece is asked for from its holding area.
+   * 
+   * @param tile The index of the tile
+   * 
+   * @return The piece showing the tile
+   * 
+   * @since 5.0
+   */
+  private Piece pieceOf(int tile) {
+    int slot = engine.getSlot(tile);
+    if (slot == GameEngine.none) {
+      return tilePiece(tile);
+    } else if (slot < leftCount) {
+      return LHoldingArea.getPiece(slot);
+    }
+    return RHoldingArea.getPiece(slot - leftCount);
+  }
+
+  /**
+   * The tile a piece shows
+   * <p>
+   * A piece knows its square or holding slot, and the engine knows the tile
+   * there, so this is constant time.
+   * 
+   * @param p A piece or a blank slot
+   * 
+   * @return The tile number, GameEngine.none for a blank
+   * 
+   * @since 5.0
+   */
+  private int tileOf(Piece p) {
+    if (p.getBoard() == gameBoard && p.getBoardCell() >= 0) {
+      return engine.getTileAtCell(p.getBoardCell());
+    }
+    int slot = slotOf(p);
+    return slot == GameEngine.none ? GameEngine.none
+        : engine.getTileAtSlot(slot);
+  }
+
+  /**
+   * The engine slot a piece or blank is in
+   * 
+   * @param p A piece or a blank slot
+   * 
+   * @return The index of the slot in the engine, GameEngine.none if it is not
+   *         in a holding area
+   * 
+   * @since 5.0
+   */
+  private int slotOf(Piece p) {
+    if (LHoldingArea.holds(p)) {
+      return p.getHoldingSlot();
+    }
+    if (RHoldingArea.holds(p)) {
+      return leftCount + p.getHoldingSlot();
+    }
+    return GameEngine.none;
+  }
+
   /**
    * Handle the Piece selection
    * <p>
@@ -356,16 +545,12 @@ public class GameController extends JPanel
    * Move the selected piece onto the board
    * <p>
    * Given an x and y coordinate from the mouse click, the selected piece can be
-   * moved to that coordinate on the grid.
-   * <p>
-   * A Blank piece is created to "swap" with the selected piece inside the
-   * holding area. For example, a piece inside the holding area is clicked, then
-   * a square on the board is clicked. The piece is moved to the board at the
-   * specified coordinates, then a blank fills the missing spot.
+   * moved to that coordinate on the grid. Clicks outside of the squares (on the
+   * bottom or right edge of the board) are ignored.
    * <p>
-   * The blank piece uses a different constructor which takes a color to make
-   * the piece appear invisible, it will also get a blue border to make it
-   * appear like an empty slot.
+   * The engine makes the move, and tells this controller to update the board
+   * and the holding area the piece came from (where a blank fills the missing
+   * spot).
    * <p>
    * The selcted piece is then deselected and set to null (now no piece is
    * selected)
@@ -373,20 +558,19 @@ public class GameController extends JPanel
    * @param x The integer cooresponding to the relative x pixel on the board.
    * @param y The integer cooresponding to the relative y pixel on the board.
    * 
-   * @see HoldingArea
-   * @see Board
-   * @see Piece
+   * @see GameEngine#place(int, int)
    * 
    * @since 4.0
    */
   private void moveToBoard(int x, int y) {
+    int xcoord = x / gameBoard.getCellSize();
+    int ycoord = y / gameBoard.getCellSize();
+    if (xcoord >= gameBoard.getColumns() || ycoord >= gameBoard.getRows()) {
+      return;
+    }
     if (selectedPiece != null) {
-      int xcoord = x / 100;
-      int ycoord = y / 100;
-      Piece blank = new Piece(lgreyBackground);
-      blank.addMouseListener(this);
-      selectedPiece.getHoldingArea().removePiece(selectedPiece, blank);
-      gameBoard.addPiece(selectedPiece, xcoord, ycoord);
+      engine.place(tileOf(selectedPiece),
+          (ycoord * gameBoard.getColumns()) + xcoord);
       selectedPiece.deselect();
       selectedPiece = null;
     }
@@ -399,26 +583,19 @@ public class GameController extends JPanel
    * This handles movement from 1 holding area to the other. Movement from a
    * holding area to the board and back, and movement within a holding area.
    * <p>
-   * If a piece is moving within holding area(s) a blank must be used to fill
-   * the spot
+   * The engine makes the move, and tells this controller to put the piece in
+   * the slot and a blank where it came from.
    * 
    * @param piece The placeholder piece that was clicked. This will be replaced
    *              by the selected piece
    * 
-   * @see HoldingArea
-   * @see Board
+   * @see GameEngine#remove(int, int)
    * 
    * @since 4.0
    */
   private void moveToHolding(Piece piece) {
     if (selectedPiece != null) {
-      gameBoard.removePiece(selectedPiece);
-      if (selectedPiece.getParent() == selectedPiece.getHoldingArea()) {
-        Piece blank = new Piece(lgreyBackground);
-        blank.addMouseListener(this);
-        selectedPiece.getHoldingArea().removePiece(selectedPiece, blank);
-      }
-      piece.getHoldingArea().replace(piece, selectedPiece);
+      engine.remove(tileOf(selectedPiece), slotOf(piece));
       selectedPiece.deselect();
       selectedPiece = null;
     }
@@ -428,12 +605,19 @@ public class GameController extends JPanel
   /**
    * This method defines the functionality for the menu buttons.
    * <p>
-   * The new_game button will randomize the PieceData and reset the game
+   * The new_game button will randomize the tiles and reset the game. The new
+   * order and rotations become the initial layout for Reset.
+   * <p>
+   * The reset button will put the tiles back to the initial layout. Both are
+   * done by the engine, which then has this controller redraw the board and
+   * the holding areas
    * <p>
-   * The reset button will clear the board and reset the holding areas according
-   * to the PieceData
+   * The undo and redo buttons have the engine take back or make again one
+   * move. Any selected piece is deselected first, since the move may take it
+   * somewhere else.
    * <p>
-   * The quit button simply exits the program.
+   * The quit button saves the game so it can be resumed, then exits the
+   * program.
    * 
    * @param e The click event (what button was clicked)
    * 
@@ -444,15 +628,19 @@ public class GameController extends JPanel
   @Override
   public void actionPerformed(ActionEvent e) {
     if (e.getSource() == gameMenu.getNewGame()) {
-      randomizePositions();
-      randomizeRotations();
-      gameBoard.clearBoard();
-      setPieces();
+      engine.newGame();
     } else if (e.getSource() == gameMenu.getReset()) {
-      copyData(pieceData, initialData);
-      gameBoard.clearBoard();
-      setPieces();
+      engine.reset();
+    } else if (e.getSource() == gameMenu.getHint()) {
+      requestHint();
+    } else if (e.getSource() == gameMenu.getUndo()) {
+      deselectPiece();
+      engine.undo();
+    } else if (e.getSource() == gameMenu.getRedo()) {
+      deselectPiece();
+      engine.redo();
     } else if (e.getSource() == gameMenu.getQuit()) {
+      saveGame();
       System.exit(0);
     }
     return;
@@ -466,7 +654,11 @@ public class GameController extends JPanel
    * board is clicked move the selected piece to the board where the user
    * clicked.
    * <p>
-   * If a piece is right clicked, rotate the piece.
+   * The holding areas and a virtual board get the clicks for their pieces,
+   * since those are not components. A click on a holding area or the board that
+   * lands on a piece is handled as a click on that piece. The piece is found
+   * from the source of the event or the square or slot under the click, so no
+   * list of pieces is searched.
    * 
    * @param e The mouse event object for a click
    * 
@@ -474,28 +666,253 @@ public class GameController extends JPanel
    */
   @Override
   public void mouseClicked(MouseEvent e) {
-    List<Piece> allPieces = new ArrayList<Piece>(LHoldingArea.getPieces());
-    allPieces.addAll(RHoldingArea.getPieces());
-    allPieces.addAll(gameBoard.getPositions());
-    for (Piece p : allPieces) {
-      if (e.getSource() == p) {
-        if (e.getButton() == MouseEvent.BUTTON3) {
-          p.rotate();
-        } else {
-          if (p.isBlank()) {
-            moveToHolding(p);
-          } else {
-            selectPiece(p);
-          }
-        }
+    if (e.getSource() instanceof Piece) {
+      clickPiece((Piece) e.getSource(), e);
+    }
+    if (e.getSource() == LHoldingArea || e.getSource() == RHoldingArea) {
+      Piece p = ((HoldingArea) e.getSource()).getPieceAt(e.getX(), e.getY());
+      if (p != null) {
+        clickPiece(p, e);
       }
     }
     if (e.getSource() == gameBoard) {
-      moveToBoard(e.getX(), e.getY());
+      Piece p = gameBoard.getPieceAt(e.getX(), e.getY());
+      if (p != null) {
+        clickPiece(p, e);
+      } else {
+        moveToBoard(e.getX(), e.getY());
+      }
+    }
+    return;
+  }
+
+  /**
+   * Handle a click on a piece
+   * <p>
+   * If a piece is right clicked, the engine rotates its tile (blanks have no
+   * tile and are not rotated). Otherwise select it, or if it is a blank slot
+   * move the selected piece into it.
+   * 
+   * @param p The piece that was clicked
+   * @param e The mouse event object for the click
+   * 
+   * @since 5.0
+   */
+  private void clickPiece(Piece p, MouseEvent e) {
+    if (e.getButton() == MouseEvent.BUTTON3) {
+      int tile = tileOf(p);
+      if (tile != GameEngine.none) {
+        engine.rotate(tile);
+      }
+    } else {
+      if (p.isBlank()) {
+        moveToHolding(p);
+      } else {
+        selectPiece(p);
+      }
+    }
+    return;
+  }
+
+  /**
+   * Show a change to a square of the board
+   * 
+   * @param cell The row-major index of the square
+   * @param tile The tile now in the square, -1 if it is empty
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void cellChanged(int cell, int tile) {
+    dropHint();
+    showHistory();
+    int x = cell % gameBoard.getColumns();
+    int y = cell / gameBoard.getColumns();
+    if (tile != GameEngine.none) {
+      gameBoard.addPiece(tilePiece(tile), x, y);
+    } else {
+      Piece old = gameBoard.getPieceAt(x * gameBoard.getCellSize(),
+          y * gameBoard.getCellSize());
+      if (old != null) {
+        gameBoard.removePiece(old);
+      }
+    }
+    return;
+  }
+
+  /**
+   * Show a change to a holding slot
+   * <p>
+   * An empty slot gets a new blank piece.
+   * 
+   * @param slot The index of the slot
+   * @param tile The tile now in the slot, -1 if it is empty
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void slotChanged(int slot, int tile) {
+    dropHint();
+    showHistory();
+    if (slot < leftCount) {
+      LHoldingArea.setSlot(slot, slotPiece(slot));
+    } else {
+      RHoldingArea.setSlot(slot - leftCount, slotPiece(slot));
+    }
+    return;
+  }
+
+  /**
+   * Show a rotated tile
+   * 
+   * @param tile The tile that was rotated
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void tileRotated(int tile) {
+    showHistory();
+    if (pieces[tile] != null) {
+      pieces[tile].repaint();
+    }
+    if (hint != null && hint.getTile() == tile && !hint.isWrong()) {
+      gameBoard.setHint(hint.getCell(),
+          hint.turnsFrom(engine.getRotation(tile)), false);
+    } else {
+      dropHint();
+    }
+    return;
+  }
+
+  /**
+   * Save any moves the AutoSaver has not saved yet, and wait for the save
+   * <p>
+   * This is called before the program exits. A solved game has nothing left
+   * to resume, so its save is deleted instead. A save that fails is reported
+   * to the player.
+   * 
+   * @see AutoSaver#flush()
+   * 
+   * @since 5.0
+   */
+  public void saveGame() {
+    if (autoSaver == null) {
+      return;
+    }
+    try {
+      autoSaver.flush();
+    } catch (IOException e) {
+      showSaveFailure(e);
+    }
+    return;
+  }
+
+  /**
+   * Tell the player the game could not be saved
+   * 
+   * @param e Why the save failed
+   * 
+   * @since 5.0
+   */
+  private void showSaveFailure(IOException e) {
+    JOptionPane.showMessageDialog(this,
+        "Could not save the game: " + e.getMessage(), "Maze",
+        JOptionPane.ERROR_MESSAGE);
+    return;
+  }
+
+  /**
+   * Enable the undo and redo buttons only when there is a move to undo or redo
+   * 
+   * @since 5.0
+   */
+  private void showHistory() {
+    gameMenu.getUndo().setEnabled(engine.getHistory().canUndo());
+    gameMenu.getRedo().setEnabled(engine.getHistory().canRedo());
+    return;
+  }
+
+  /**
+   * Deselect the selected piece, if there is one
+   * 
+   * @since 5.0
+   */
+  private void deselectPiece() {
+    if (selectedPiece != null) {
+      selectedPiece.deselect();
+      selectedPiece = null;
     }
     return;
   }
 
+  /**
+   * Ask the HintFinder for a hint for the game as it is now and show it
+   * <p>
+   * The piece of the hint is selected and its square outlined. Nothing is
+   * shown if there is no hint (the puzzle is solved).
+   * 
+   * @since 5.0
+   */
+  private void requestHint() {
+    dropHint();
+    Hint found = hintFinder.findHint();
+    if (found == null) {
+      return;
+    }
+    hint = found;
+    Piece piece = pieceOf(hint.getTile());
+    if (selectedPiece != piece) {
+      if (selectedPiece != null) {
+        selectedPiece.deselect();
+      }
+      selectedPiece = piece;
+      piece.select();
+    }
+    gameBoard.setHint(hint.getCell(),
+        hint.turnsFrom(engine.getRotation(hint.getTile())), hint.isWrong());
+    return;
+  }
+
+  /**
+   * Remove the hint being shown
+   * 
+   * @since 5.0
+   */
+  private void dropHint() {
+    if (hint != null) {
+      hint = null;
+      gameBoard.clearHint();
+    }
+    return;
+  }
+
+  /**
+   * Show a new or reset game
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void gameReset() {
+    dropHint();
+    showHistory();
+    setPieces();
+    return;
+  }
+
+  /**
+   * Tell the player the puzzle is solved
+   * <p>
+   * The message waits until the last move has been painted.
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void puzzleSolved() {
+    SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+        "Puzzle solved!", "Maze", JOptionPane.INFORMATION_MESSAGE));
+    return;
+  }
+
   /**
    * Unused method
    * 
@@ -544,4 +961,47 @@ public class GameController extends JPanel
     return;
   }
 
+  /**
+   * Scroll pane that is the size of its contents, up to a maximum size
+   * <p>
+   * Small puzzles therefore look exactly as if there was no scroll pane, while
+   * larger ones are cut off at the maximum size and get scroll bars. The size
+   * is worked out from the contents every time it is asked for, so it follows
+   * the holding areas as pieces are added. The minimum size is the same so the
+   * GridBagLayout never squashes the scroll pane down to nothing.
+   */
+  private static class CappedScrollPane extends JScrollPane {
+
+    // Default serialVersion (required for extension of JScrollPane)
+    private static final long serialVersionUID = 1L;
+
+    // The largest size before the contents scroll
+    private final Dimension maxView;
+
+    CappedScrollPane(JComponent view, Dimension maxView) {
+      super(view);
+      this.maxView = maxView;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+      Dimension preferred = getViewport().getView().getPreferredSize();
+      Dimension size = new Dimension(preferred);
+      if (preferred.height > maxView.height) {
+        size.width += getVerticalScrollBar().getPreferredSize().width;
+      }
+      if (preferred.width > maxView.width) {
+        size.height += getHorizontalScrollBar().getPreferredSize().height;
+      }
+      size.width = Math.min(size.width, maxView.width);
+      size.height = Math.min(size.height, maxView.height);
+      return size;
+    }
+
+    @Override
+    public Dimension getMinimumSize() {
+      return getPreferredSize();
+    }
+  }
+
 }
\ No newline at end of file
@@ -0,0 +1,842 @@
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The rules and state of the Maze game, without any user interface.
+ * <p>
+ * The engine holds a board of rows x columns squares and one holding slot per
+ * tile. Every tile is always in exactly one square or one slot. Tiles are
+ * numbered by their position in the PieceData list the engine was created
+ * with, squares are numbered row-major and slots start at 0.
+ * <p>
+ * The state is kept in int arrays that index each other: the tile in each
+ * square and each slot, and the square or slot of each tile. Every move and
+ * every query is constant time and allocates nothing. The rotation of a tile
+ * is the rotation of its PieceData.
+ * <p>
+ * The board is also kept as BoardBits, with the EdgeSignature of every tile
+ * at every rotation and of the maze in every square worked out once up front.
+ * BoardBits counts the filled squares and those whose tile draws the maze as
+ * squares change, so after every move the engine knows in constant time if
+ * the puzzle has just been solved, and tells the listeners.
+ * <p>
+ * Nothing here uses AWT or Swing, so the engine can be driven by a solver, a
+ * benchmark or a test without a display. The GameController drives it from
+ * mouse clicks and follows it as a GameListener.
+ * <p>
+ * New Game shuffles the tiles into the slots and randomizes their rotations.
+ * That layout is saved, and Reset puts every tile back to it.
+ * <p>
+ * Every place, remove and rotate is recorded as a Move in a GameHistory, so it
+ * can be undone and redone. A move only records the tile and where it was, so
+ * the history never copies the game and can keep every move since the game
+ * started. New Game and Reset start a new history.
+ * <p>
+ * A GameSnapshot of the whole game can be taken at any time and resumed
+ * later, on this engine or on a new engine of the same puzzle. This is how
+ * games are saved (see SaveFile).
+ * 
+ * @see GameListener
+ * @see GameController
+ * @see PieceData
+ * @see BoardBits
+ * @see GameHistory
+ * @see GameSnapshot
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class GameEngine {
+
+  // Marks an empty square or slot, or a tile that is not in one
+  public static final int none = -1;
+
+  // The tiles of the puzzle, indexed by tile number
+  private final PieceData[] tiles;
+
+  // Number of squares down and across the board
+  private final int rows;
+  private final int columns;
+
+  // The tile in each square and each slot (none if empty)
+  private final int[] cellTile;
+  private final int[] slotTile;
+
+  // The square and the slot of each tile (none if it is not in one)
+  private final int[] tileCell;
+  private final int[] tileSlot;
+
+  // The tile in each slot and the rotation of each tile at the start of the
+  // game (for Reset)
+  private final int[] initialSlots;
+  private final int[] initialRotations;
+
+  // The signature of each tile at each rotation (index tile * 4 + turns)
+  private final long[] tileSignatures;
+
+  // The signature of the maze in each square it fills (tile i unturned in
+  // square i)
+  private final long[] maze;
+
+  // Identifies the puzzle, so a snapshot is only resumed on its own puzzle
+  private final int puzzleCode;
+
+  // Occupancy and edges of the board
+  private final BoardBits bits;
+
+  // If the puzzle was solved after the last move
+  private boolean solved = false;
+
+  // The moves that can be undone and redone
+  private GameHistory history = GameHistory.empty;
+
+  // Everything following this engine
+  private final List<GameListener> listeners = new ArrayList<GameListener>();
+
+  /**
+   * Class Constructor
+   * <p>
+   * Every tile starts in the slot with its own number at the rotation it was
+   * read with, and that is saved as the initial layout.
+   * 
+   * @param pieceData The tiles of the puzzle
+   * @param rows      The number of squares down the board
+   * @param columns   The number of squares across the board
+   * 
+   * @throws IllegalArgumentException If the board has fewer squares than
+   *                                  there are tiles
+   * 
+   * @since 5.0
+   */
+  public GameEngine(List<PieceData> pieceData, int rows, int columns) {
+    if (rows < 1 || columns < 1
+        || (long) rows * columns < pieceData.size()) {
+      throw new IllegalArgumentException("A " + rows + "x" + columns
+          + " board cannot hold " + pieceData.size() + " tiles");
+    }
+    this.tiles = pieceData.toArray(new PieceData[0]);
+    this.rows = rows;
+    this.columns = columns;
+    cellTile = new int[rows * columns];
+    slotTile = new int[tiles.length];
+    tileCell = new int[tiles.length];
+    tileSlot = new int[tiles.length];
+    initialSlots = new int[tiles.length];
+    initialRotations = new int[tiles.length];
+    tileSignatures = new long[tiles.length * 4];
+    maze = new long[tiles.length];
+    for (int i = 0; i < tiles.length; i++) {
+      initialSlots[i] = i;
+      initialRotations[i] = tiles[i].getRotation();
+      for (int turns = 0; turns < 4; turns++) {
+        tileSignatures[(i * 4) + turns] = EdgeSignature.of(tiles[i], turns);
+      }
+      maze[i] = EdgeSignature.of(tiles[i].getCoords(0));
+    }
+    puzzleCode = Arrays.hashCode(tileSignatures);
+    bits = new BoardBits(rows, columns, maze);
+    restore();
+    return;
+  }
+
+  /**
+   * Add a listener that is told about every change
+   * 
+   * @param listener The listener to add
+   * 
+   * @since 5.0
+   */
+  public void addGameListener(GameListener listener) {
+    listeners.add(listener);
+    return;
+  }
+
+  /**
+   * Remove a listener added with addGameListener
+   * 
+   * @param listener The listener to remove
+   * 
+   * @since 5.0
+   */
+  public void removeGameListener(GameListener listener) {
+    listeners.remove(listener);
+    return;
+  }
+
+  /**
+   * Getter for the number of squares down the board
+   * 
+   * @return rows
+   * 
+   * @since 5.0
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Getter for the number of squares across the board
+   * 
+   * @return columns
+   * 
+   * @since 5.0
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Getter for the number of squares on the board
+   * 
+   * @return rows * columns
+   * 
+   * @since 5.0
+   */
+  public int getCellCount() {
+    return cellTile.length;
+  }
+
+  /**
+   * Getter for the number of tiles (which is also the number of slots)
+   * 
+   * @return The number of tiles in the puzzle
+   * 
+   * @since 5.0
+   */
+  public int getTileCount() {
+    return tiles.length;
+  }
+
+  /**
+   * Getter for the code identifying the puzzle
+   * <p>
+   * The code is a hash of the edges of every tile at every rotation, in tile
+   * order, so engines of the same puzzle have the same code.
+   * 
+   * @return puzzleCode
+   * 
+   * @since 5.0
+   */
+  public int getPuzzleCode() {
+    return puzzleCode;
+  }
+
+  /**
+   * Getter for the data of a tile
+   * 
+   * @param tile The tile number
+   * 
+   * @return The PieceData of the tile, at its current rotation
+   * 
+   * @since 5.0
+   */
+  public PieceData getTile(int tile) {
+    return tiles[tile];
+  }
+
+  /**
+   * Get the tile in a square
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @returns int The tile number, none if the square is empty
+   * 
+   * @since 5.0
+   */
+  public int getTileAtCell(int cell) {
+    return cellTile[cell];
+  }
+
+  /**
+   * Get the tile in a holding slot
+   * 
+   * @param slot The index of the slot
+   * 
+   * @returns int The tile number, none if the slot is empty
+   * 
+   * @since 5.0
+   */
+  public int getTileAtSlot(int slot) {
+    return slotTile[slot];
+  }
+
+  /**
+   * Get the square a tile is in
+   * 
+   * @param tile The tile number
+   * 
+   * @returns int The row-major index of the square, none if the tile is in a
+   *          slot
+   * 
+   * @since 5.0
+   */
+  public int getCell(int tile) {
+    return tileCell[tile];
+  }
+
+  /**
+   * Get the holding slot a tile is in
+   * 
+   * @param tile The tile number
+   * 
+   * @returns int The index of the slot, none if the tile is on the board
+   * 
+   * @since 5.0
+   */
+  public int getSlot(int tile) {
+    return tileSlot[tile];
+  }
+
+  /**
+   * Get the rotation of a tile
+   * 
+   * @param tile The tile number
+   * 
+   * @returns int The rotation (3 is unrotated)
+   * 
+   * @see PieceData#getRotation()
+   * 
+   * @since 5.0
+   */
+  public int getRotation(int tile) {
+    return tiles[tile].getRotation();
+  }
+
+  /**
+   * Get the edges of a tile at its current rotation
+   * 
+   * @param tile The tile number
+   * 
+   * @returns long The EdgeSignature of the tile
+   * 
+   * @since 5.0
+   */
+  public long getSignature(int tile) {
+    return tileSignatures[(tile * 4) + tiles[tile].getTurns()];
+  }
+
+  /**
+   * Get the edges of a tile at a rotation
+   * 
+   * @param tile  The tile number
+   * @param turns The number of clockwise quarter turns (0 - 3)
+   * 
+   * @returns long The EdgeSignature of the tile
+   * 
+   * @since 5.0
+   */
+  public long getSignature(int tile, int turns) {
+    return tileSignatures[(tile * 4) + (turns & 3)];
+  }
+
+  /**
+   * Get the walls the maze has in a square
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @returns long The EdgeSignature a tile needs there, -1 for a square
+   *          after the maze, which stays empty
+   * 
+   * @since 5.0
+   */
+  public long getMazeSignature(int cell) {
+    return cell < maze.length ? maze[cell] : -1;
+  }
+
+  /**
+   * Checks if a square holds a tile that draws the maze there
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @returns boolean True if the square is filled and its tile is correct
+   * 
+   * @since 5.0
+   */
+  public boolean isCorrectAt(int cell) {
+    return bits.fits(cell);
+  }
+
+  /**
+   * Getter for the moves that can be undone and redone
+   * <p>
+   * The history is immutable, so it can be kept without copying it.
+   * 
+   * @return history
+   * 
+   * @since 5.0
+   */
+  public GameHistory getHistory() {
+    return history;
+  }
+
+  /**
+   * Checks if every tile is on the board
+   * 
+   * @returns boolean True if no tile is left in a slot
+   * 
+   * @since 5.0
+   */
+  public boolean isBoardFull() {
+    return bits.countFilled() == tiles.length;
+  }
+
+  /**
+   * Checks if the puzzle is solved
+   * <p>
+   * The puzzle is the maze the tiles were cut from, tile i as the file stores
+   * it drawing square i. Any tile that draws the same walls as the file's tile
+   * in a square will do there, whatever its number.
+   * 
+   * @returns boolean True if every tile is on the board and draws the maze in
+   *          its square
+   * 
+   * @see BoardBits#isSolved()
+   * 
+   * @since 5.0
+   */
+  public boolean isSolved() {
+    return bits.isSolved();
+  }
+
+  /**
+   * Place a tile in an empty square of the board
+   * <p>
+   * The tile can come from a slot or from another square, the square or slot
+   * it leaves becomes empty.
+   * 
+   * @param tile The tile number
+   * @param cell The row-major index of the square
+   * 
+   * @returns boolean True if the tile was moved, false if the square is
+   *          outside the board or holds another tile
+   * 
+   * @throws IllegalArgumentException If there is no such tile
+   * 
+   * @since 5.0
+   */
+  public boolean place(int tile, int cell) {
+    checkTile(tile);
+    if (cell < 0 || cell >= cellTile.length || cellTile[cell] != none) {
+      return false;
+    }
+    history = history.push(
+        new Move(Move.place, tile, tileCell[tile], tileSlot[tile], cell));
+    moveToCell(tile, cell);
+    return true;
+  }
+
+  /**
+   * Move a tile into an empty holding slot
+   * <p>
+   * This is how a tile is taken off the board. A tile can also be moved from
+   * one slot to another.
+   * 
+   * @param tile The tile number
+   * @param slot The index of the slot
+   * 
+   * @returns boolean True if the tile was moved, false if the slot does not
+   *          exist or holds another tile
+   * 
+   * @throws IllegalArgumentException If there is no such tile
+   * 
+   * @since 5.0
+   */
+  public boolean remove(int tile, int slot) {
+    checkTile(tile);
+    if (slot < 0 || slot >= slotTile.length || slotTile[slot] != none) {
+      return false;
+    }
+    history = history.push(
+        new Move(Move.remove, tile, tileCell[tile], tileSlot[tile], slot));
+    moveToSlot(tile, slot);
+    return true;
+  }
+
+  /**
+   * Rotate a tile a quarter turn, wherever it is
+   * 
+   * @param tile The tile number
+   * 
+   * @throws IllegalArgumentException If there is no such tile
+   * 
+   * @since 5.0
+   */
+  public void rotate(int tile) {
+    checkTile(tile);
+    history = history.push(
+        new Move(Move.rotate, tile, tileCell[tile], tileSlot[tile], none));
+    turn(tile, 1);
+    return;
+  }
+
+  /**
+   * Take back the last move made
+   * <p>
+   * The tile goes back to the square or slot it came from, which is always
+   * empty since every later move has been undone, or turns back a quarter
+   * turn. The listeners are told as for any other move.
+   * 
+   * @returns boolean True if a move was undone, false if there was none
+   * 
+   * @since 5.0
+   */
+  public boolean undo() {
+    Move move = history.getUndoMove();
+    if (move == null) {
+      return false;
+    }
+    history = history.undo();
+    if (move.getKind() == Move.rotate) {
+      turn(move.getTile(), 3);
+    } else if (move.getFromCell() != none) {
+      moveToCell(move.getTile(), move.getFromCell());
+    } else {
+      moveToSlot(move.getTile(), move.getFromSlot());
+    }
+    return true;
+  }
+
+  /**
+   * Make the last move undone again
+   * 
+   * @returns boolean True if a move was redone, false if there was none
+   * 
+   * @since 5.0
+   */
+  public boolean redo() {
+    Move move = history.getRedoMove();
+    if (move == null) {
+      return false;
+    }
+    history = history.redo();
+    if (move.getKind() == Move.rotate) {
+      turn(move.getTile(), 1);
+    } else if (move.getKind() == Move.place) {
+      moveToCell(move.getTile(), move.getTo());
+    } else {
+      moveToSlot(move.getTile(), move.getTo());
+    }
+    return true;
+  }
+
+  /**
+   * Put every tile back to the layout at the start of the game
+   * 
+   * @since 5.0
+   */
+  public void reset() {
+    restore();
+    for (GameListener listener : listeners) {
+      listener.gameReset();
+    }
+    return;
+  }
+
+  /**
+   * Take a snapshot of the whole game
+   * <p>
+   * The snapshot has its own copy of the state, so the game can go on while
+   * the snapshot is saved. The history is not part of it.
+   * 
+   * @returns GameSnapshot The tile places and rotations, and the layout Reset
+   *          goes back to
+   * 
+   * @since 5.0
+   */
+  public GameSnapshot snapshot() {
+    int[] places = new int[tiles.length];
+    byte[] rotations = new byte[tiles.length];
+    byte[] startRotations = new byte[tiles.length];
+    for (int tile = 0; tile < tiles.length; tile++) {
+      places[tile] = tileCell[tile] != none ? tileCell[tile]
+          : cellTile.length + tileSlot[tile];
+      rotations[tile] = (byte) tiles[tile].getRotation();
+      startRotations[tile] = (byte) initialRotations[tile];
+    }
+    return new GameSnapshot(rows, columns, puzzleCode, initialSlots.clone(),
+        startRotations, places, rotations);
+  }
+
+  /**
+   * Put the game back to a snapshot
+   * <p>
+   * Every tile goes to its place and rotation in the snapshot, which also
+   * becomes the layout Reset goes back to. The history starts again and the
+   * listeners are told as for a Reset. A snapshot that is already solved is not
+   * announced again.
+   * 
+   * @param game The snapshot to resume
+   * 
+   * @throws IllegalArgumentException If the snapshot is of another puzzle or
+   *                                  board
+   * 
+   * @since 5.0
+   */
+  public void resume(GameSnapshot game) {
+    if (game.getRows() != rows || game.getColumns() != columns
+        || game.getTileCount() != tiles.length
+        || game.getPuzzleCode() != puzzleCode) {
+      throw new IllegalArgumentException(
+          "The snapshot is of a different puzzle");
+    }
+    Arrays.fill(cellTile, none);
+    Arrays.fill(slotTile, none);
+    Arrays.fill(tileCell, none);
+    Arrays.fill(tileSlot, none);
+    bits.clearAll();
+    for (int slot = 0; slot < initialSlots.length; slot++) {
+      initialSlots[slot] = game.getInitialTileAtSlot(slot);
+    }
+    for (int tile = 0; tile < tiles.length; tile++) {
+      initialRotations[tile] = game.getInitialRotation(tile);
+      tiles[tile].setRotation(game.getRotation(tile));
+      int place = game.getPlace(tile);
+      if (place < cellTile.length) {
+        cellTile[place] = tile;
+        tileCell[tile] = place;
+        bits.set(place, getSignature(tile));
+      } else {
+        slotTile[place - cellTile.length] = tile;
+        tileSlot[tile] = place - cellTile.length;
+      }
+    }
+    history = GameHistory.empty;
+    solved = isSolved();
+    for (GameListener listener : listeners) {
+      listener.gameReset();
+    }
+    return;
+  }
+
+  /**
+   * Start a new game with a new random layout
+   * <p>
+   * This utilizes the SecureRandom package to get as close to true random as
+   * possible.
+   * 
+   * @since 5.0
+   */
+  public void newGame() {
+    SecureRandom secureRandom = new SecureRandom();
+    secureRandom.setSeed(System.currentTimeMillis());
+    newGame(secureRandom);
+    return;
+  }
+
+  /**
+   * Start a new game with a layout from the given random numbers
+   * <p>
+   * The tiles are shuffled into the slots and given random rotations, that
+   * layout becomes the one Reset goes back to. A seeded Random gives the same
+   * game every time.
+   * 
+   * @param random The source of random numbers
+   * 
+   * @since 5.0
+   */
+  public void newGame(Random random) {
+    randomizePositions(random);
+    randomizeRotations(random);
+    reset();
+    return;
+  }
+
+  /**
+   * Randomly shuffle the order of the tiles in the slots
+   * <p>
+   * The shuffle is in-place.
+   * 
+   * @param random The source of random numbers
+   * 
+   * @since 5.0
+   */
+  private void randomizePositions(Random random) {
+    for (int i = 0; i < initialSlots.length; i++) {
+      int randIndex = random.nextInt(initialSlots.length);
+      int tmp = initialSlots[randIndex];
+      initialSlots[randIndex] = initialSlots[i];
+      initialSlots[i] = tmp;
+    }
+    return;
+  }
+
+  /**
+   * Randomize the rotations of each tile.
+   * <p>
+   * The rotations are as follows: 0 = 90 deg 1 = 180 deg 2 = 270 deg 3 = 360
+   * deg (No rotation)
+   * <p>
+   * Only a quarter of the pieces (4 of 16) can have no rotation, and at least 1
+   * piece must be 90, 180, and 270 degrees rotated.
+   * 
+   * @param random The source of random numbers
+   * 
+   * @since 5.0
+   */
+  private void randomizeRotations(Random random) {
+    int r0count = 0;
+    int r0max = tiles.length / 4;
+    int r90 = random.nextInt(tiles.length);
+    int r180 = random.nextInt(tiles.length);
+    int r270 = random.nextInt(tiles.length);
+    for (int i = 0; i < tiles.length; i++) {
+      int rotation = random.nextInt(4);
+      rotation = i == r90 ? 0 : rotation;
+      rotation = i == r180 ? 1 : rotation;
+      rotation = i == r270 ? 2 : rotation;
+      if (rotation == 3 && r0count >= r0max) {
+        rotation = random.nextInt(3);
+      } else if (rotation == 3) {
+        r0count++;
+      }
+      initialRotations[initialSlots[i]] = rotation;
+    }
+    return;
+  }
+
+  /**
+   * Put every tile into its initial slot and rotation, without telling the
+   * listeners
+   * 
+   * @since 5.0
+   */
+  private void restore() {
+    Arrays.fill(cellTile, none);
+    Arrays.fill(tileCell, none);
+    bits.clearAll();
+    solved = false;
+    history = GameHistory.empty;
+    for (int slot = 0; slot < initialSlots.length; slot++) {
+      int tile = initialSlots[slot];
+      slotTile[slot] = tile;
+      tileSlot[tile] = slot;
+      tiles[tile].setRotation(initialRotations[tile]);
+    }
+    return;
+  }
+
+  /**
+   * Checks that a tile number is one of this puzzle's tiles
+   * 
+   * @param tile The tile number
+   * 
+   * @throws IllegalArgumentException If there is no such tile
+   * 
+   * @since 5.0
+   */
+  private void checkTile(int tile) {
+    if (tile < 0 || tile >= tiles.length) {
+      throw new IllegalArgumentException("No tile " + tile + " in a puzzle of "
+          + tiles.length + " tiles");
+    }
+    return;
+  }
+
+  /**
+   * Move a tile into an empty square and tell the listeners
+   * 
+   * @param tile The tile number
+   * @param cell The row-major index of the square
+   * 
+   * @since 5.0
+   */
+  private void moveToCell(int tile, int cell) {
+    vacate(tile);
+    cellTile[cell] = tile;
+    tileCell[tile] = cell;
+    bits.set(cell, getSignature(tile));
+    for (GameListener listener : listeners) {
+      listener.cellChanged(cell, tile);
+    }
+    checkSolved();
+    return;
+  }
+
+  /**
+   * Move a tile into an empty slot and tell the listeners
+   * 
+   * @param tile The tile number
+   * @param slot The index of the slot
+   * 
+   * @since 5.0
+   */
+  private void moveToSlot(int tile, int slot) {
+    vacate(tile);
+    slotTile[slot] = tile;
+    tileSlot[tile] = slot;
+    for (GameListener listener : listeners) {
+      listener.slotChanged(slot, tile);
+    }
+    checkSolved();
+    return;
+  }
+
+  /**
+   * Rotate a tile clockwise and tell the listeners
+   * 
+   * @param tile  The tile number
+   * @param turns The number of quarter turns (0 - 3)
+   * 
+   * @since 5.0
+   */
+  private void turn(int tile, int turns) {
+    tiles[tile].setRotation((tiles[tile].getRotation() + turns) & 3);
+    if (tileCell[tile] != none) {
+      bits.set(tileCell[tile], getSignature(tile));
+    }
+    for (GameListener listener : listeners) {
+      listener.tileRotated(tile);
+    }
+    checkSolved();
+    return;
+  }
+
+  /**
+   * Tell the listeners if the last move solved the puzzle
+   * 
+   * @since 5.0
+   */
+  private void checkSolved() {
+    boolean now = isSolved();
+    if (now && !solved) {
+      solved = true;
+      for (GameListener listener : listeners) {
+        listener.puzzleSolved();
+      }
+    }
+    solved = now;
+    return;
+  }
+
+  /**
+   * Empty the square or slot a tile is in and tell the listeners
+   * 
+   * @param tile The tile number
+   * 
+   * @since 5.0
+   */
+  private void vacate(int tile) {
+    int cell = tileCell[tile];
+    if (cell != none) {
+      cellTile[cell] = none;
+      tileCell[tile] = none;
+      bits.clear(cell);
+      for (GameListener listener : listeners) {
+        listener.cellChanged(cell, none);
+      }
+    }
+    int slot = tileSlot[tile];
+    if (slot != none) {
+      slotTile[slot] = none;
+      tileSlot[tile] = none;
+      for (GameListener listener : listeners) {
+        listener.slotChanged(slot, none);
+      }
+    }
+    return;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,173 @@
+
+/**
+ * The moves that can be undone and redone in a GameEngine.
+ * <p>
+ * A history is two stacks of Move: the moves made, newest on top, and the
+ * moves undone, the last one undone on top. Both stacks are immutable linked
+ * lists, so pushing, undoing or redoing makes a new history that shares
+ * everything below the top with the old one. Each move costs one Move and
+ * one link no matter how large the puzzle is, and the game state is never
+ * copied, so the history can grow for a whole session and keeping a history
+ * (for example to save it) costs nothing.
+ * <p>
+ * Making a new move drops the moves that were undone, like in any editor.
+ * 
+ * @see Move
+ * @see GameEngine
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public final class GameHistory {
+
+  // A history with nothing to undo or redo
+  public static final GameHistory empty = new GameHistory(null, null);
+
+  // The top of the moves made and of the moves undone (null if empty)
+  private final Link undo;
+  private final Link redo;
+
+  /**
+   * A Move on one of the stacks, with the rest of the stack below it
+   */
+  private static final class Link {
+
+    // The move
+    private final Move move;
+
+    // The rest of the stack (null at the bottom)
+    private final Link next;
+
+    // The number of moves from here to the bottom
+    private final int size;
+
+    private Link(Move move, Link next) {
+      this.move = move;
+      this.next = next;
+      this.size = next == null ? 1 : next.size + 1;
+    }
+  }
+
+  /**
+   * Class Constructor
+   * 
+   * @param undo The top of the moves made
+   * @param redo The top of the moves undone
+   */
+  private GameHistory(Link undo, Link redo) {
+    this.undo = undo;
+    this.redo = redo;
+    return;
+  }
+
+  /**
+   * The history after a new move
+   * 
+   * @param move The move just made
+   * 
+   * @return A history with the move on top and nothing to redo
+   * 
+   * @since 5.0
+   */
+  public GameHistory push(Move move) {
+    return new GameHistory(new Link(move, undo), null);
+  }
+
+  /**
+   * Checks if there is a move to undo
+   * 
+   * @return True if a move has been made
+   * 
+   * @since 5.0
+   */
+  public boolean canUndo() {
+    return undo != null;
+  }
+
+  /**
+   * Checks if there is a move to redo
+   * 
+   * @return True if a move has been undone since the last move was made
+   * 
+   * @since 5.0
+   */
+  public boolean canRedo() {
+    return redo != null;
+  }
+
+  /**
+   * The move the next undo takes back
+   * 
+   * @return The last move made, null if there is none
+   * 
+   * @since 5.0
+   */
+  public Move getUndoMove() {
+    return undo == null ? null : undo.move;
+  }
+
+  /**
+   * The move the next redo makes again
+   * 
+   * @return The last move undone, null if there is none
+   * 
+   * @since 5.0
+   */
+  public Move getRedoMove() {
+    return redo == null ? null : redo.move;
+  }
+
+  /**
+   * Getter for the number of moves that can be undone
+   * 
+   * @return The size of the undo stack
+   * 
+   * @since 5.0
+   */
+  public int getUndoCount() {
+    return undo == null ? 0 : undo.size;
+  }
+
+  /**
+   * Getter for the number of moves that can be redone
+   * 
+   * @return The size of the redo stack
+   * 
+   * @since 5.0
+   */
+  public int getRedoCount() {
+    return redo == null ? 0 : redo.size;
+  }
+
+  /**
+   * The history after undoing the last move
+   * 
+   * @return A history with the last move moved to the redo stack
+   * 
+   * @throws IllegalStateException If there is nothing to undo
+   * 
+   * @since 5.0
+   */
+  public GameHistory undo() {
+    if (undo == null) {
+      throw new IllegalStateException("Nothing to undo");
+    }
+    return new GameHistory(undo.next, new Link(undo.move, redo));
+  }
+
+  /**
+   * The history after redoing the last move undone
+   * 
+   * @return A history with the move moved back to the undo stack
+   * 
+   * @throws IllegalStateException If there is nothing to redo
+   * 
+   * @since 5.0
+   */
+  public GameHistory redo() {
+    if (redo == null) {
+      throw new IllegalStateException("Nothing to redo");
+    }
+    return new GameHistory(new Link(redo.move, undo), redo.next);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,69 @@
+
+/**
+ * Listener for changes to the state of a GameEngine.
+ * <p>
+ * The GameEngine calls these methods after every change it makes, this is how
+ * the Swing layer follows the game without holding any game state itself. The
+ * GameController implements this interface and moves its Piece objects to
+ * match the engine.
+ * <p>
+ * A tile of -1 means the square or slot is now empty. A move sends two events,
+ * first for the square or slot the tile left and then for the one it moved to.
+ * 
+ * @see GameEngine
+ * @see GameController
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public interface GameListener {
+
+  /**
+   * A square of the board changed
+   * 
+   * @param cell The row-major index of the square
+   * @param tile The tile now in the square, -1 if it is empty
+   * 
+   * @since 5.0
+   */
+  void cellChanged(int cell, int tile);
+
+  /**
+   * A holding slot changed
+   * 
+   * @param slot The index of the slot
+   * @param tile The tile now in the slot, -1 if it is empty
+   * 
+   * @since 5.0
+   */
+  void slotChanged(int slot, int tile);
+
+  /**
+   * A tile was rotated a quarter turn
+   * 
+   * @param tile The tile that was rotated
+   * 
+   * @since 5.0
+   */
+  void tileRotated(int tile);
+
+  /**
+   * Every tile was moved and rotated at once (reset or new game), the whole
+   * state should be read again
+   * 
+   * @since 5.0
+   */
+  void gameReset();
+
+  /**
+   * The last move put every tile on the board so that every tile draws its
+   * square of the maze
+   * <p>
+   * This comes after the events for the move itself, once per solve. Taking
+   * a tile off the board or turning it wrong and then solving the puzzle
+   * again sends it again.
+   * 
+   * @since 5.0
+   */
+  void puzzleSolved();
+}
\ No newline at end of file
@@ -0,0 +1,207 @@
+
+import java.util.Arrays;
+
+/**
+ * The state of a game at one moment: where every tile is, its rotation, and
+ * the layout Reset goes back to.
+ * <p>
+ * A snapshot is made by GameEngine.snapshot and put back with
+ * GameEngine.resume, and is what a SaveFile stores. Tiles, squares and slots
+ * are numbered as in the GameEngine. The place of a tile is a single number, a
+ * square of the board if it is less than the number of squares, otherwise the
+ * holding slot (place - number of squares).
+ * <p>
+ * The constructor checks that the arrays describe a real game, every tile in
+ * exactly one place and every place holding at most one tile, so a snapshot
+ * that was read from a file can be trusted. The check only allocates arrays
+ * the size of the tile count, never the size of the board, so a file that
+ * claims a huge board cannot run the game out of memory. Snapshots are
+ * immutable, the arrays given to the constructor are kept and must not be
+ * changed after.
+ * 
+ * @see GameEngine
+ * @see SaveFile
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class GameSnapshot {
+
+  // Number of squares down and across the board
+  private final int rows;
+  private final int columns;
+
+  // Identifies the puzzle the game is of (see GameEngine.getPuzzleCode)
+  private final int puzzleCode;
+
+  // The tile in each slot at the start of the game
+  private final int[] initialSlots;
+
+  // The rotation of each tile at the start of the game
+  private final byte[] initialRotations;
+
+  // The square or slot of each tile
+  private final int[] places;
+
+  // The rotation of each tile
+  private final byte[] rotations;
+
+  /**
+   * Class Constructor
+   * 
+   * @param rows             The number of squares down the board
+   * @param columns          The number of squares across the board
+   * @param puzzleCode       Identifies the puzzle
+   * @param initialSlots     The tile in each slot at the start of the game
+   * @param initialRotations The rotation of each tile at the start of the game
+   * @param places           The square or slot of each tile
+   * @param rotations        The rotation of each tile
+   * 
+   * @throws IllegalArgumentException If the arrays do not describe a game on
+   *                                  this board
+   * 
+   * @since 5.0
+   */
+  public GameSnapshot(int rows, int columns, int puzzleCode,
+      int[] initialSlots, byte[] initialRotations, int[] places,
+      byte[] rotations) {
+    int numTiles = initialSlots.length;
+    if (rows < 1 || columns < 1 || (long) rows * columns < numTiles
+        || (long) rows * columns > Integer.MAX_VALUE - numTiles
+        || initialRotations.length != numTiles || places.length != numTiles
+        || rotations.length != numTiles) {
+      throw new IllegalArgumentException("A " + rows + "x" + columns
+          + " board cannot hold " + numTiles + " tiles");
+    }
+    int placeCount = (rows * columns) + numTiles;
+    boolean[] started = new boolean[numTiles];
+    for (int i = 0; i < numTiles; i++) {
+      int tile = initialSlots[i];
+      if (tile < 0 || tile >= numTiles || started[tile]) {
+        throw new IllegalArgumentException("Tile " + tile
+            + " is not in exactly one starting slot");
+      }
+      started[tile] = true;
+      if (places[i] < 0 || places[i] >= placeCount) {
+        throw new IllegalArgumentException("Tile " + i
+            + " is not in a square or slot");
+      }
+      if ((initialRotations[i] & ~3) != 0 || (rotations[i] & ~3) != 0) {
+        throw new IllegalArgumentException("Tile " + i
+            + " has no such rotation");
+      }
+    }
+    int[] sorted = places.clone();
+    Arrays.sort(sorted);
+    for (int i = 1; i < numTiles; i++) {
+      if (sorted[i] == sorted[i - 1]) {
+        throw new IllegalArgumentException("Place " + sorted[i]
+            + " holds more than one tile");
+      }
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.puzzleCode = puzzleCode;
+    this.initialSlots = initialSlots;
+    this.initialRotations = initialRotations;
+    this.places = places;
+    this.rotations = rotations;
+    return;
+  }
+
+  /**
+   * Getter for the number of squares down the board
+   * 
+   * @return rows
+   * 
+   * @since 5.0
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Getter for the number of squares across the board
+   * 
+   * @return columns
+   * 
+   * @since 5.0
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Getter for the code of the puzzle the game is of
+   * 
+   * @return puzzleCode
+   * 
+   * @since 5.0
+   */
+  public int getPuzzleCode() {
+    return puzzleCode;
+  }
+
+  /**
+   * Getter for the number of tiles
+   * 
+   * @return The number of tiles (which is also the number of slots)
+   * 
+   * @since 5.0
+   */
+  public int getTileCount() {
+    return places.length;
+  }
+
+  /**
+   * Get the tile in a slot at the start of the game
+   * 
+   * @param slot The index of the slot
+   * 
+   * @return The tile number
+   * 
+   * @since 5.0
+   */
+  public int getInitialTileAtSlot(int slot) {
+    return initialSlots[slot];
+  }
+
+  /**
+   * Get the rotation of a tile at the start of the game
+   * 
+   * @param tile The tile number
+   * 
+   * @return The rotation (3 is unrotated)
+   * 
+   * @since 5.0
+   */
+  public int getInitialRotation(int tile) {
+    return initialRotations[tile];
+  }
+
+  /**
+   * Get the square or slot of a tile
+   * 
+   * @param tile The tile number
+   * 
+   * @return The square, or the number of squares plus the slot
+   * 
+   * @since 5.0
+   */
+  public int getPlace(int tile) {
+    return places[tile];
+  }
+
+  /**
+   * Get the rotation of a tile
+   * 
+   * @param tile The tile number
+   * 
+   * @return The rotation (3 is unrotated)
+   * 
+   * @since 5.0
+   */
+  public int getRotation(int tile) {
+    return rotations[tile];
+  }
+}
\ No newline at end of file
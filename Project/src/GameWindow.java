@@ -1,12 +1,17 @@
 
 import java.awt.*;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
 import javax.swing.*;
+import java.util.ArrayList;
 import java.util.List;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.concurrent.ExecutionException;
 
 /**
  * The GameWindow object is the main GUI. This object places the Game Controller
@@ -21,13 +26,25 @@ import java.nio.file.Paths;
  * is GridBagLayout which is set on init as well. This layout used to size and
  * place the GameController within the GUI.
  * <p>
- * The default.mze file is attempted to be opened and read into a byte array. if
- * there is a failure, a popup is displayed. Otherwise the MzeFileReader class
- * reads the byte array into a list of PieceData objects, each stores a set of
- * coordinates for the lines to be displayed on the tiles. method.
+ * The default.mze file is attempted to be opened and mapped into memory. if
+ * there is a failure, a popup is displayed. Otherwise the MappedMzeFile
+ * decodes the mapped bytes into a list of PieceData objects, each stores a set
+ * of coordinates for the lines to be displayed on the tiles.
+ * <p>
+ * The file is read by a SwingWorker on a background thread. Until it is done
+ * the window shows a LoadingPanel with the number of tiles read so far, so the
+ * window appears and stays responsive however large the puzzle is. The
+ * GameController is created on the event dispatch thread once every tile has
+ * been read, since the game shuffles the whole set of tiles when it starts.
+ * <p>
+ * A game saved when the player last quit (the .mzs SaveFile next to the .mze
+ * file) is read by the same SwingWorker and resumed, so the player carries on
+ * where they left off. The game is saved in the background as it is played
+ * (see AutoSaver), and whatever is left is saved when the window is closed.
  * 
  * @see MzeFileReader
  * @see GameController
+ * @see SaveFile
  * 
  * @author Sebastian Colwell
  * @author Zach Kingsmore
@@ -48,15 +65,25 @@ public class GameWindow extends JFrame {
   // Path to the mze file (relative) This was given by Kim Buckner
   private static final String relativeMzePath = "input/default.mze";
 
+  // Progress is shown after every this many tiles are read
+  private static final int progressStep = 256;
+
   // The data read from the default.mze file (stored as PieceData objects)
   private List<PieceData> pieceData;
 
+  // Shown in place of the GameController until the file is read
+  private LoadingPanel loadingPanel;
+
+  // The game, once the file is read (null until then)
+  private GameController gameController;
+
   /**
    * Class Constructor
    * <p>
    * Initializes the GUI. This sets the window title of the GUI, the close
    * operation, and gives the GUI a GridBagLayout. The setup method is then
-   * called to place the core GUI components.
+   * called to place the core GUI components. Closing the window saves the game
+   * before the program exits.
    * 
    * @param windowTitle The title that gets displayed at the top of the window
    *                    when the GUI is shown.
@@ -65,69 +92,108 @@ public class GameWindow extends JFrame {
   public GameWindow(String windowTitle) {
     super(windowTitle);
     this.setDefaultCloseOperation(EXIT_ON_CLOSE);
+    this.addWindowListener(new WindowAdapter() {
+      @Override
+      public void windowClosing(WindowEvent e) {
+        if (gameController != null) {
+          gameController.saveGame();
+        }
+      }
+    });
     this.getContentPane().setLayout(new GridBagLayout());
     setupGUI();
     return;
   }
 
   /**
-   * Read default.mze data, and setup controller
-   * <p>
-   * The setup method reads the default.mze file then places the GameController.
+   * Show the loading panel, and start reading default.mze data
    * <p>
-   * The GameController is an extension of a JPanel, this component contains all
-   * core elements of the Maze Game. This is placed in the center of the
-   * GameWindow and will fill the entire JFrame with a 5px inset. The inset just
-   * makes a 5px background (dark grey) border around the controller.
+   * The LoadingPanel fills the window until the file is read, then it is
+   * replaced by the GameController.
    * 
-   * @see MzeFileReader
-   * @see GameController
+   * @see MzeLoader
    * 
    * @since 3.0
    */
   private void setupGUI() {
-    readMze();
-    GridBagConstraints c = new GridBagConstraints();
-
-    // 5px insets (creates background border) fills remaining screen
-    c.insets = new Insets(5, 5, 5, 5);
-    c.fill = GridBagConstraints.BOTH;
-    c.weightx = 1;
-    c.weighty = 1;
-    this.add(new GameController(pieceData), c);
+    loadingPanel = new LoadingPanel(relativeMzePath);
+    this.add(loadingPanel, fillConstraints());
+    new MzeLoader(Paths.get(relativeMzePath)).execute();
     return;
   }
 
   /**
-   * Read the default.mze file data
+   * Place the controller once the data has been read
+   * <p>
+   * The GameController is an extension of a JPanel, this component contains all
+   * core elements of the Maze Game. This is placed in the center of the
+   * GameWindow and will fill the entire JFrame with a 5px inset. The inset just
+   * makes a 5px background (dark grey) border around the controller.
    * <p>
-   * This method trys to locate the default.mze file from the relative path
-   * defined. Then reads all the bytes in that file into a byte array That byte
-   * array is then passed into the MzeFileReader so it can decipher the data and
-   * store all the pieces data. Each pieces data is a series of coordinates
-   * which coorespond to lines that will be drawn on a given piece to make a
-   * maze segment.
+   * A saved game is resumed on the new controller's engine. A save of a
+   * different puzzle, or one that could not be read, is ignored and the player
+   * is told a new game was started.
    * <p>
-   * If the file could not be found, or if the data could not be read into a
-   * byte array. Display a failure popup window. This will close the program.
+   * The game is reported to StartupTimer as painted once the repaint asked for
+   * here has run, it is queued before the mark.
    * 
-   * @see MzeFileReader
+   * @param data      The tiles read from the file
+   * @param saved     The game saved for the file, null if there is none
+   * @param saveError Why the saved game could not be read, null if it was
+   *                  read or there is none
    * 
-   * @since 3.0
+   * @see GameController
+   * 
+   * @since 5.0
    */
-  private void readMze() {
-    try {
-      Path path = Paths.get(relativeMzePath);
-      byte[] array = Files.readAllBytes(path);
-      pieceData = MzeFileReader.readData(array);
-    } catch (FileNotFoundException e) {
-      showFailurePopup("Could not find file");
-    } catch (IOException e) {
-      showFailurePopup("Could not read file");
+  private void showGame(List<PieceData> data, GameSnapshot saved,
+      String saveError) {
+    pieceData = data;
+    this.remove(loadingPanel);
+    loadingPanel = null;
+    gameController = new GameController(pieceData);
+    gameController.setSaveFile(SaveFile.pathFor(Paths.get(relativeMzePath)));
+    if (saved != null) {
+      try {
+        gameController.getEngine().resume(saved);
+      } catch (IllegalArgumentException e) {
+        saveError = "it is a game of another puzzle";
+      }
+    }
+    this.add(gameController, fillConstraints());
+    StartupTimer.mark("gameBuilt");
+    this.revalidate();
+    this.repaint();
+    SwingUtilities.invokeLater(() -> {
+      StartupTimer.mark("gamePainted");
+      StartupTimer.report();
+    });
+    if (saveError != null) {
+      String reason = saveError;
+      SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(this,
+          "The saved game could not be resumed, " + reason
+              + ". A new game was started.",
+          "Maze", JOptionPane.WARNING_MESSAGE));
     }
     return;
   }
 
+  /**
+   * The constraints of the panel that fills the window
+   * 
+   * @return 5px insets (creates background border), fills remaining screen
+   * 
+   * @since 5.0
+   */
+  private static GridBagConstraints fillConstraints() {
+    GridBagConstraints c = new GridBagConstraints();
+    c.insets = new Insets(5, 5, 5, 5);
+    c.fill = GridBagConstraints.BOTH;
+    c.weightx = 1;
+    c.weighty = 1;
+    return c;
+  }
+
   /**
    * Display failure popup if default.mze could not be read
    * <p>
@@ -163,4 +229,92 @@ public class GameWindow extends JFrame {
     this.setVisible(true);
     return;
   }
+
+  /**
+   * Read the default.mze file data on a background thread
+   * <p>
+   * This maps the file into memory with a MappedMzeFile, which deciphers the
+   * data one tile at a time straight from the mapped bytes, so the file is
+   * never copied into a byte array on the heap. Every tile is shown in the
+   * holding areas so every tile is decoded into the list. Each pieces data is a
+   * series of coordinates which coorespond to lines that will be drawn on a
+   * given piece to make a maze segment. The number of tiles read is published
+   * every progressStep tiles for the LoadingPanel. The saved game, if there is
+   * one, is read once the tiles are. A save that cannot be read is skipped, a
+   * new game is started and the player is told why.
+   * <p>
+   * If the file could not be found, or if the data could not be read, a
+   * failure popup window is displayed. This will close the program.
+   */
+  private class MzeLoader extends SwingWorker<List<PieceData>, Integer> {
+
+    // The file being read
+    private final Path path;
+
+    // The number of tiles in the file, known once it is opened
+    private volatile int total = 0;
+
+    // The saved game, read after the tiles (null if there is none)
+    private volatile GameSnapshot saved = null;
+
+    // Why the saved game could not be read (null if it was, or there is none)
+    private volatile String saveError = null;
+
+    MzeLoader(Path path) {
+      this.path = path;
+    }
+
+    @Override
+    protected List<PieceData> doInBackground() throws IOException {
+      MappedMzeFile file = MappedMzeFile.open(path);
+      total = file.size();
+      List<PieceData> tiles = new ArrayList<PieceData>(total);
+      publish(0);
+      for (int i = 0; i < total; i++) {
+        tiles.add(file.get(i));
+        if ((i + 1) % progressStep == 0) {
+          publish(i + 1);
+        }
+      }
+      publish(total);
+      Path save = SaveFile.pathFor(path);
+      if (Files.exists(save)) {
+        try {
+          saved = SaveFile.read(save);
+        } catch (IOException e) {
+          saveError = "it could not be read (" + e.getMessage() + ")";
+        }
+      }
+      return tiles;
+    }
+
+    @Override
+    protected void process(List<Integer> read) {
+      if (loadingPanel != null) {
+        loadingPanel.setProgress(read.get(read.size() - 1), total);
+      }
+    }
+
+    @Override
+    protected void done() {
+      try {
+        List<PieceData> data = get();
+        StartupTimer.mark("tilesRead");
+        showGame(data, saved, saveError);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof NoSuchFileException) {
+          showFailurePopup("Could not find file");
+        } else if (cause instanceof IOException
+            || cause instanceof UncheckedIOException) {
+          showFailurePopup("Could not read file");
+        } else {
+          throw new IllegalStateException("Loading " + path + " failed",
+              cause);
+        }
+      }
+    }
+  }
 }
\ No newline at end of file
@@ -0,0 +1,119 @@
+
+/**
+ * A suggested move from a HintFinder: a tile, the square it belongs in and
+ * the rotation it needs there, or a tile that is in the wrong square and has
+ * to be moved off it.
+ * <p>
+ * Tiles and squares are numbered as in the GameEngine. Hints are immutable.
+ * 
+ * @see HintFinder
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class Hint {
+
+  // The tile to move
+  private final int tile;
+
+  // The row-major index of the square to move it to
+  private final int cell;
+
+  // The rotation the tile needs in that square
+  private final int rotation;
+
+  // If the tile is in the wrong square (cell) and has to be moved off it
+  private final boolean wrong;
+
+  /**
+   * Class Constructor
+   * 
+   * @param tile     The tile to move
+   * @param cell     The row-major index of the square to move it to
+   * @param rotation The rotation it needs, as PieceData stores it
+   * 
+   * @since 5.0
+   */
+  public Hint(int tile, int cell, int rotation) {
+    this(tile, cell, rotation, false);
+    return;
+  }
+
+  /**
+   * Class Constructor
+   * 
+   * @param tile     The tile to move
+   * @param cell     The row-major index of the square to move it to, or the
+   *                 square it is wrongly in
+   * @param rotation The rotation it needs, as PieceData stores it
+   * @param wrong    True if the tile does not belong in cell at all
+   * 
+   * @since 5.0
+   */
+  public Hint(int tile, int cell, int rotation, boolean wrong) {
+    this.tile = tile;
+    this.cell = cell;
+    this.rotation = rotation;
+    this.wrong = wrong;
+    return;
+  }
+
+  /**
+   * Getter for the tile to move
+   * 
+   * @return tile
+   * 
+   * @since 5.0
+   */
+  public int getTile() {
+    return tile;
+  }
+
+  /**
+   * Getter for the square to move the tile to
+   * 
+   * @return cell
+   * 
+   * @since 5.0
+   */
+  public int getCell() {
+    return cell;
+  }
+
+  /**
+   * Getter for the rotation the tile needs
+   * 
+   * @return rotation (3 is unrotated)
+   * 
+   * @see PieceData#getRotation()
+   * 
+   * @since 5.0
+   */
+  public int getRotation() {
+    return rotation;
+  }
+
+  /**
+   * Checks if the hint is to move a tile off the wrong square
+   * 
+   * @return wrong
+   * 
+   * @since 5.0
+   */
+  public boolean isWrong() {
+    return wrong;
+  }
+
+  /**
+   * The number of quarter turns (right clicks) a tile needs to match the hint
+   * 
+   * @param current The rotation the tile is at now
+   * 
+   * @return 0 - 3
+   * 
+   * @since 5.0
+   */
+  public int turnsFrom(int current) {
+    return (rotation - current) & 3;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,148 @@
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the next correct move for the game in a GameEngine.
+ * <p>
+ * The puzzle is the maze the tiles were cut from, so the tiles that can go in
+ * a square are the ones that draw the maze's walls there at some rotation.
+ * Those are looked up once, when the finder is created, in a table from each
+ * signature to the tiles and rotations that draw it. A hint then goes through
+ * the squares in row-major order to the first one the GameEngine does not
+ * count as correct:
+ * <ul>
+ * <li>If the square holds a tile that draws the maze there at another
+ * rotation, the hint is to turn it</li>
+ * <li>If the square holds any other tile, the hint points at that tile so
+ * the player can move it off first</li>
+ * <li>If the square is empty, the hint is a tile that can go there, taken
+ * from a holding slot if there is one, otherwise from a square where it is
+ * wrong</li>
+ * </ul>
+ * Every step is a table lookup or a look at one square, so a hint is found on
+ * the event dispatch thread in time linear in the squares before it.
+ * Shuffling and rotating the tiles for a new game does not change the table,
+ * so it lasts as long as the engine.
+ * 
+ * @see Hint
+ * @see GameEngine
+ * @see GameController
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class HintFinder {
+
+  // The game being hinted
+  private final GameEngine engine;
+
+  // The tiles and rotations (tile * 4 + turns) that draw each signature
+  private final Map<Long, List<Integer>> drawers =
+      new HashMap<Long, List<Integer>>();
+
+  /**
+   * Class Constructor
+   * <p>
+   * Builds the table of which tiles draw which signatures.
+   * 
+   * @param engine The game to give hints for
+   * 
+   * @since 5.0
+   */
+  public HintFinder(GameEngine engine) {
+    this.engine = engine;
+    for (int tile = 0; tile < engine.getTileCount(); tile++) {
+      for (int turns = 0; turns < 4; turns++) {
+        List<Integer> options = drawers.computeIfAbsent(
+            engine.getSignature(tile, turns), s -> new ArrayList<Integer>());
+        if (options.isEmpty()
+            || options.get(options.size() - 1) >> 2 != tile) {
+          options.add((tile * 4) + turns);
+        }
+      }
+    }
+    return;
+  }
+
+  /**
+   * Find a hint for the game as it is now
+   * <p>
+   * This must be called on the thread that moves the tiles (the event
+   * dispatch thread).
+   * 
+   * @return The hint, or null if the puzzle is already solved
+   * 
+   * @since 5.0
+   */
+  public Hint findHint() {
+    for (int cell = 0; cell < engine.getCellCount(); cell++) {
+      if (engine.isCorrectAt(cell)) {
+        continue;
+      }
+      int there = engine.getTileAtCell(cell);
+      List<Integer> options = drawers.get(engine.getMazeSignature(cell));
+      if (there != GameEngine.none) {
+        int turns = turnsFor(options, there);
+        return turns < 0
+            ? new Hint(there, cell, engine.getRotation(there), true)
+            : new Hint(there, cell, rotation(turns));
+      }
+      if (options == null) {
+        continue;
+      }
+      int pick = -1;
+      for (int option : options) {
+        int at = engine.getCell(option >> 2);
+        if (at == GameEngine.none) {
+          pick = option;
+          break;
+        }
+        if (pick < 0 && !engine.isCorrectAt(at)) {
+          pick = option;
+        }
+      }
+      if (pick >= 0) {
+        return new Hint(pick >> 2, cell, rotation(pick & 3));
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Find the rotation at which a tile draws a square
+   * 
+   * @param options The tiles and rotations that draw the square, null if
+   *                none do
+   * @param tile    The tile
+   * 
+   * @return The quarter turns, -1 if the tile cannot draw the square
+   * 
+   * @since 5.0
+   */
+  private static int turnsFor(List<Integer> options, int tile) {
+    if (options != null) {
+      for (int option : options) {
+        if (option >> 2 == tile) {
+          return option & 3;
+        }
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Turn a number of quarter turns into a rotation as PieceData stores it
+   * 
+   * @param turns The number of clockwise quarter turns
+   * 
+   * @return The rotation (3 is unrotated)
+   * 
+   * @since 5.0
+   */
+  private static int rotation(int turns) {
+    return (turns + 3) & 3;
+  }
+}
\ No newline at end of file
@@ -1,7 +1,10 @@
 
 import java.awt.*;
+import java.util.Collection;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.IntFunction;
 import javax.swing.*;
 
 /**
@@ -11,14 +14,31 @@ import javax.swing.*;
  * areas. One on each side of the board. Two of these objects are instantiated
  * in the GameController, each have half the tiles added to them.
  * <p>
- * The Left HoldingArea gets tiles 0-7 and the right HoldingArea gets tiles
- * 8-15. This Object is a JPanel with a lighter gray background. It can Add and
- * remove pieces from itself.
+ * The Left HoldingArea gets the first half of the tiles (0-7 for the default
+ * puzzle) and the right HoldingArea gets the rest (8-15). This Object is a
+ * JPanel with a lighter gray background. It can Add and remove pieces from
+ * itself.
  * <p>
  * There is a list of Pieces which is what is used to update the holding area
  * when a piece is moved. For example when a piece moves from the holding area
- * to the board, its position is updated with a placeholder piece and then this
- * object is redrawn.
+ * to the board, its position is updated with a placeholder piece and then that
+ * slot is redrawn.
+ * <p>
+ * The pieces are not components of the holding area. The list is the model and
+ * paintComponent draws each piece straight from it, only for the slots that
+ * intersect the clip, so a holding area inside a scroll pane only ever draws
+ * the slots that can be seen. Clicks are matched to a slot with getPieceAt.
+ * Moving a piece repaints one slot, the holding area is only laid out again
+ * when the number of slots changes, and addPieces fills it with any number of
+ * pieces in a single layout pass.
+ * <p>
+ * Every piece in a slot is told which holding area and slot it is in, so
+ * finding, replacing or removing a piece never searches the list.
+ * <p>
+ * Slots can also be added empty with addSlots, along with a function that
+ * makes the piece of a slot. The piece is only made the first time its slot is
+ * painted, clicked or asked for with getPiece, so a holding area with
+ * thousands of slots only creates the pieces that are scrolled into view.
  * 
  * @see Piece
  * @see GameController
@@ -34,9 +54,23 @@ public class HoldingArea extends JPanel {
   // Light grey background for the holding area
   private static final Color dgreyBackground = Color.decode("#4A4A4A");
 
-  // The list of pieces held by this holding area
+  // Each piece is 100x100
+  private static final int slotSize = 100;
+
+  // 15px around the pieces and 3px above and below each piece
+  private static final int margin = 15;
+  private static final int gap = 3;
+
+  // Distance from the top of one slot to the top of the next
+  private static final int slotStep = slotSize + (2 * gap);
+
+  // The list of pieces held by this holding area (null for a slot whose
+  // piece has not been made yet)
   private List<Piece> heldPieces = new ArrayList<Piece>();
 
+  // Makes the piece of a slot added by addSlots when it is first needed
+  private IntFunction<Piece> slotSource;
+
   /**
    * Class Constructor
    * <p>
@@ -53,12 +87,14 @@ public class HoldingArea extends JPanel {
    */
   public HoldingArea() {
     this.setBackground(dgreyBackground);
-    this.setLayout(new GridBagLayout());
+    this.setLayout(null);
     return;
   }
 
   /**
    * Getter for heldPieces
+   * <p>
+   * Slots added by addSlots whose pieces have not been made yet are null.
    * 
    * @return List of Held Pieces
    */
@@ -66,36 +102,57 @@ public class HoldingArea extends JPanel {
     return heldPieces;
   }
 
+  /**
+   * Get the piece in a slot, making it if it has not been made yet
+   * 
+   * @param index The index of the slot
+   * 
+   * @returns Piece The piece (or blank) in the slot
+   * 
+   * @since 5.0
+   */
+  public Piece getPiece(int index) {
+    Piece piece = heldPieces.get(index);
+    if (piece == null) {
+      piece = slotSource.apply(index);
+      piece.setHoldingArea(this);
+      piece.setHoldingSlot(index);
+      heldPieces.set(index, piece);
+    }
+    return piece;
+  }
+
+  /**
+   * Checks if a piece is in one of the slots
+   * 
+   * @param piece The piece to look for
+   * 
+   * @returns boolean True if this holding area holds the piece
+   * 
+   * @since 5.0
+   */
+  public boolean holds(Piece piece) {
+    return piece.getHoldingArea() == this && piece.getHoldingSlot() >= 0;
+  }
+
   /**
    * Draws all pieces inside the held pieces list
    * <p>
-   * This removes all pieces from the holding area, then redraws the holding
-   * area with the pieces from the pieces list.
+   * The holding area is one column of slots. The first piece gets a 15px
+   * inset at the top, the last piece gets a 15px inset at the bottom,
+   * eveyrthing else gets a 3px border top & bottom. This creates a 15 pixel
+   * border around all pieces to make them look nice within the holding area.
    * <p>
-   * When a piece is moved onto the board it is removed from the pieces list,
-   * then the holding area is redrawn with the placeholder in its spot.
-   * <p>
-   * The first piece gets a 15px inset at the top, the last piece gets a 15px
-   * inset at the bottom, eveyrthing else gets a 3px border top & bottom. This
-   * creates a 15 pixel border around all pieces to make them look nice within
-   * the holding area
+   * The size is set from the number of slots, then the holding area is laid
+   * out and repainted. This is only needed when the number of slots changes.
    * 
    * @since 3.0
    */
   public void drawPieces() {
-    this.removeAll();
-    GridBagConstraints c = new GridBagConstraints();
-    for (int i = 0; i < heldPieces.size(); i++) {
-      c.gridy = i;
-      if (i == 0) {
-        c.insets = new Insets(15, 15, 3, 15);
-      } else if (i == heldPieces.size() - 1) {
-        c.insets = new Insets(3, 15, 15, 15);
-      } else {
-        c.insets = new Insets(3, 15, 3, 15);
-      }
-      this.add(heldPieces.get(i), c);
-    }
+    int count = heldPieces.size();
+    int height = count == 0 ? 0
+        : (2 * margin) + (count * slotSize) + ((count - 1) * 2 * gap);
+    this.setPreferredSize(new Dimension(slotSize + (2 * margin), height));
     this.revalidate();
     this.repaint();
     return;
@@ -111,18 +168,64 @@ public class HoldingArea extends JPanel {
    * @since 4.0
    */
   public void addPiece(Piece piece) {
+    piece.setHoldingArea(this);
+    piece.setHoldingSlot(heldPieces.size());
     heldPieces.add(piece);
     drawPieces();
     return;
   }
 
+  /**
+   * Adds many pieces to the held pieces list and redraws the holding area once
+   * 
+   * @param pieces the pieces to be added to the list, in order
+   * 
+   * @see Piece
+   * 
+   * @since 5.0
+   */
+  public void addPieces(Collection<Piece> pieces) {
+    for (Piece piece : pieces) {
+      piece.setHoldingArea(this);
+      piece.setHoldingSlot(heldPieces.size());
+      heldPieces.add(piece);
+    }
+    drawPieces();
+    return;
+  }
+
+  /**
+   * Adds empty slots whose pieces are made when they are first needed
+   * <p>
+   * The holding area is laid out once for all of the new slots. The function
+   * is given the index of the slot and must return the piece for it, it
+   * replaces the function of any slots added before.
+   * 
+   * @param count  The number of slots to add
+   * @param source Makes the piece (or blank) of a slot from its index
+   * 
+   * @since 5.0
+   */
+  public void addSlots(int count, IntFunction<Piece> source) {
+    slotSource = source;
+    heldPieces.addAll(Collections.nCopies(count, (Piece) null));
+    drawPieces();
+    return;
+  }
+
   /**
    * Clears the list of held pieces
    * 
    * @since 4.0
    */
   public void clearPieces() {
+    for (Piece piece : heldPieces) {
+      if (piece != null) {
+        piece.setHoldingSlot(-1);
+      }
+    }
     heldPieces.clear();
+    slotSource = null;
     return;
   }
 
@@ -131,7 +234,9 @@ public class HoldingArea extends JPanel {
    * <p>
    * This takes an existing piece (the placeholder slot) and the newPiece (the
    * selected piece on the board) and replaces the existing piece with the new
-   * piece. This is how pieces move back to a holding area from the board.
+   * piece. This is how pieces move back to a holding area from the board. The
+   * new piece now belongs to this holding area, and only its slot is redrawn.
+   * The existing piece knows its slot so the list is not searched.
    * 
    * @param existing The existing piece in the holding area
    * @param newPiece The piece that will replace the existing piece
@@ -141,8 +246,9 @@ public class HoldingArea extends JPanel {
    * @since 4.0
    */
   public void replace(Piece existing, Piece newPiece) {
-    heldPieces.set(heldPieces.indexOf(existing), newPiece);
-    drawPieces();
+    if (holds(existing)) {
+      setSlot(existing.getHoldingSlot(), newPiece);
+    }
     return;
   }
 
@@ -159,6 +265,7 @@ public class HoldingArea extends JPanel {
    * area.
    * <p>
    * If the piece exits in the holding area, replace the piece with the blank
+   * and redraw its slot
    * 
    * @param piece The selected piece being moved out of the holding area
    * @param blank The blank placeholder that will take its place in the holding
@@ -169,12 +276,133 @@ public class HoldingArea extends JPanel {
    * @since 4.0
    */
   public void removePiece(Piece piece, Piece blank) {
-    int pieceIndex = heldPieces.indexOf(piece);
-    if (pieceIndex >= 0) {
-      blank.setHoldingArea(this);
-      heldPieces.set(heldPieces.indexOf(piece), blank);
+    if (holds(piece)) {
+      setSlot(piece.getHoldingSlot(), blank);
+    }
+    return;
+  }
+
+  /**
+   * Put a piece into a single slot
+   * <p>
+   * The piece that was in the slot is told it left, the new piece is told its
+   * holding area and slot, and only that slot is repainted.
+   * 
+   * @param index The index of the slot
+   * @param piece The piece (or blank) to put in the slot
+   * 
+   * @since 5.0
+   */
+  public void setSlot(int index, Piece piece) {
+    Piece old = heldPieces.set(index, piece);
+    if (old != null) {
+      old.setHoldingSlot(-1);
+    }
+    piece.setHoldingArea(this);
+    piece.setHoldingSlot(index);
+    this.repaint(slotBounds(index));
+    return;
+  }
+
+  /**
+   * Get the piece in the slot under a point of the holding area
+   * 
+   * @param x The x pixel relative to the holding area
+   * @param y The y pixel relative to the holding area
+   * 
+   * @returns Piece The piece (or blank) in that slot, null if the point is
+   *          not on a slot
+   * 
+   * @since 5.0
+   */
+  public Piece getPieceAt(int x, int y) {
+    Point origin = slotOrigin();
+    int offset = y - origin.y;
+    int index = Math.floorDiv(offset, slotStep);
+    if (x < origin.x || x >= origin.x + slotSize || offset < 0
+        || offset - (index * slotStep) >= slotSize
+        || index >= heldPieces.size()) {
+      return null;
+    }
+    return getPiece(index);
+  }
+
+  /**
+   * Repaint the slot holding a piece
+   * <p>
+   * The pieces are not displayed themselves, so Piece sends its repaints here
+   * (when it is selected, rotated or flashes) and only its slot is painted
+   * again.
+   * 
+   * @param piece The piece that changed
+   * 
+   * @see Piece
+   * 
+   * @since 5.0
+   */
+  public void repaintPiece(Piece piece) {
+    if (holds(piece)) {
+      this.repaint(slotBounds(piece.getHoldingSlot()));
+    }
+    return;
+  }
+
+  /**
+   * The top left corner of the first slot
+   * <p>
+   * The column of slots is centered if the holding area is larger than it
+   * needs to be.
+   * 
+   * @returns Point The pixel position of the first slot
+   * 
+   * @since 5.0
+   */
+  private Point slotOrigin() {
+    Dimension size = getPreferredSize();
+    int x = Math.max((getWidth() - size.width) / 2, 0) + margin;
+    int y = Math.max((getHeight() - size.height) / 2, 0) + margin;
+    return new Point(x, y);
+  }
+
+  /**
+   * The pixel bounds of a slot
+   * 
+   * @param index The index of the slot
+   * 
+   * @returns Rectangle The area of the holding area covered by the slot
+   * 
+   * @since 5.0
+   */
+  private Rectangle slotBounds(int index) {
+    Point origin = slotOrigin();
+    return new Rectangle(origin.x, origin.y + (index * slotStep), slotSize,
+        slotSize);
+  }
+
+  /**
+   * Draw the pieces in the slots that intersect the clip
+   * 
+   * @param g The graphics object of the JPanel
+   * 
+   * @since 5.0
+   */
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    Point origin = slotOrigin();
+    int first = 0;
+    int last = heldPieces.size() - 1;
+    Rectangle clip = g.getClipBounds();
+    if (clip != null) {
+      first = Math.max((clip.y - origin.y) / slotStep, 0);
+      last = Math.min(Math.floorDiv(clip.y + clip.height - origin.y, slotStep),
+          last);
+    }
+    GraphicsConfiguration gc = getGraphicsConfiguration();
+    for (int i = first; i <= last; i++) {
+      getPiece(i).paintTile(g, origin.x, origin.y + (i * slotStep),
+          slotSize, gc);
     }
-    drawPieces();
     return;
   }
 
@@ -0,0 +1,94 @@
+
+import java.awt.*;
+import javax.swing.*;
+
+/**
+ * Shown in the GameWindow while a puzzle is being read.
+ * <p>
+ * The panel has the same dark grey as the GameController, with a label and a
+ * progress bar in the middle. It is cheap to create and paint, so the window
+ * can be shown right away however large the puzzle is. The GameWindow swaps it
+ * for the GameController once every tile has been read.
+ * 
+ * @see GameWindow
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class LoadingPanel extends JPanel {
+
+  // Default serialVersion (required for extension of JPanel)
+  private static final long serialVersionUID = 1L;
+
+  // Dark grey background (same as the GameController)
+  private static final Color dgreyBackground = Color.decode("#393939");
+
+  // The label is white so it shows on the dark grey
+  private static final Color textColor = Color.white;
+
+  // Width of the progress bar
+  private static final Dimension barSize = new Dimension(300, 20);
+
+  // Shows what is being read and how far along it is
+  private final JLabel label;
+
+  // Fills up as the tiles are read
+  private final JProgressBar bar;
+
+  /**
+   * Class Constructor
+   * <p>
+   * The progress bar starts indeterminate until the number of tiles is known.
+   * 
+   * @param name The name of what is being loaded, shown in the label
+   * 
+   * @since 5.0
+   */
+  public LoadingPanel(String name) {
+    this.setBackground(dgreyBackground);
+    this.setLayout(new GridBagLayout());
+    label = new JLabel("Loading " + name);
+    label.setForeground(textColor);
+    bar = new JProgressBar();
+    bar.setIndeterminate(true);
+    bar.setPreferredSize(barSize);
+
+    GridBagConstraints c = new GridBagConstraints();
+    c.gridx = 0;
+    c.insets = new Insets(5, 5, 5, 5);
+    this.add(label, c);
+    this.add(bar, c);
+    return;
+  }
+
+  /**
+   * Show how many tiles have been read
+   * 
+   * @param read  The number of tiles read so far
+   * @param total The number of tiles in the puzzle
+   * 
+   * @since 5.0
+   */
+  public void setProgress(int read, int total) {
+    bar.setIndeterminate(false);
+    bar.setMaximum(Math.max(total, 1));
+    bar.setValue(read);
+    bar.setString(read + " / " + total + " tiles");
+    bar.setStringPainted(true);
+    return;
+  }
+
+  /**
+   * Paint the panel, the first paint is marked in the StartupTimer
+   * 
+   * @param g The graphics of the panel
+   * 
+   * @since 5.0
+   */
+  @Override
+  protected void paintComponent(Graphics g) {
+    super.paintComponent(g);
+    StartupTimer.mark("loadingPainted");
+    return;
+  }
+}
\ No newline at end of file
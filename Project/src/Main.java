@@ -9,8 +9,17 @@ import javax.swing.*;
  * <p>
  * The Nimbus look and feel code, along with the try catch statements were given
  * by Professor Kim Buckner in version 1.0 of the program
+ * <p>
+ * Swing components must only be created and used on the event dispatch
+ * thread, so the GUI is built there rather than on the main thread. The look
+ * and feel is set before the window is built, so every component is created
+ * with Nimbus once instead of being styled again after it is shown.
+ * <p>
+ * The time each part of starting up takes is recorded by StartupTimer, run
+ * with -Dmaze.startupTimings=true to have it printed.
  * 
  * @see GameWindow
+ * @see StartupTimer
  * 
  * @author Sebastian Colwell
  * @version %I%, %G%
@@ -18,11 +27,17 @@ import javax.swing.*;
  */
 public class Main {
   public static void main(String[] args) {
-    // Declare GameWindow object with group name in the window title
-    GameWindow game = new GameWindow("Hotel Group Maze Game");
+    SwingUtilities.invokeLater(Main::createAndShowGUI);
+    return;
+  }
 
-    // Make GUI visible
-    game.showGUI();
+  /**
+   * Build and show the GUI, on the event dispatch thread
+   * 
+   * @since 5.0
+   */
+  private static void createAndShowGUI() {
+    StartupTimer.mark("main");
 
     // Set the overall Feel of the GUI to Nimbus
     // NOTE: May want to explore other look/feels?
@@ -37,6 +52,15 @@ public class Main {
     } catch (IllegalAccessException e) {
       System.out.println("UIManager cannot set look at feel, using default");
     }
+    StartupTimer.mark("lookAndFeel");
+
+    // Declare GameWindow object with group name in the window title
+    GameWindow game = new GameWindow("Hotel Group Maze Game");
+    StartupTimer.mark("window");
+
+    // Make GUI visible
+    game.showGUI();
+    StartupTimer.mark("shown");
     return;
   }
 }       
\ No newline at end of file
@@ -0,0 +1,160 @@
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+/**
+ * A .mze file mapped into memory and decoded one tile at a time.
+ * <p>
+ * Opening the file maps it with FileChannel.map and reads only the tile
+ * count, so opening takes the same time and heap no matter how large the file
+ * is. The bytes are paged in by the operating system as they are touched
+ * rather than copied into the heap up front.
+ * <p>
+ * This object is a read-only List of PieceData. A PieceData object is only
+ * created when a tile is asked for with get, and it is not kept, so the
+ * caller decides which tiles stay in memory. Since the tiles are variable
+ * length, the byte offset of each tile is found by skipping over the headers
+ * of the tiles before it. The offsets are remembered so every tile header is
+ * only skipped once.
+ * <p>
+ * The tiles are decoded with a MzeFileReader so they are validated exactly
+ * like a regular read. A corrupt tile is only found when it is reached, and is
+ * reported as an UncheckedIOException since List.get cannot throw an
+ * IOException. Access is synchronized since the reader keeps a position.
+ * 
+ * @see MzeFileReader
+ * @see GameWindow
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MappedMzeFile extends AbstractList<PieceData>
+    implements RandomAccess {
+
+  // The reader over the mapped bytes
+  private final MzeFileReader reader;
+
+  // Number of tiles in the file
+  private final int numTiles;
+
+  // Byte offset of each tile found so far (offsets[0] is the first tile)
+  private int[] offsets = new int[16];
+
+  // How many entries of offsets are known
+  private int knownOffsets = 1;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Use the open method to create a mapped file.
+   * 
+   * @param data The mapped file bytes
+   * 
+   * @throws IOException If the tile count is missing or impossible
+   * 
+   * @since 5.0
+   */
+  private MappedMzeFile(MappedByteBuffer data) throws IOException {
+    reader = new MzeFileReader(data);
+    numTiles = reader.readTileCount();
+    offsets[0] = 4;
+    return;
+  }
+
+  /**
+   * Map a .mze file into memory
+   * <p>
+   * The channel is closed once the file is mapped, the mapping stays valid
+   * until this object is garbage collected. Files over 2GB cannot be mapped
+   * into a single buffer and are rejected.
+   * 
+   * @param path The .mze file to open
+   * 
+   * @returns MappedMzeFile The lazily decoded tiles of the file
+   * 
+   * @throws IOException If the file cannot be opened or mapped, or the tile
+   *                     count is invalid
+   * 
+   * @since 5.0
+   */
+  public static MappedMzeFile open(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(path + " is too large to map (" + size
+            + " bytes)");
+      }
+      return new MappedMzeFile(
+          channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+    }
+  }
+
+  /**
+   * Decode the tile at the given index
+   * 
+   * @param index The index of the tile in the file
+   * 
+   * @returns PieceData A newly decoded PieceData for the tile
+   * 
+   * @throws UncheckedIOException If the tile or a tile before it is corrupt
+   * 
+   * @since 5.0
+   */
+  @Override
+  public synchronized PieceData get(int index) {
+    if (index < 0 || index >= numTiles) {
+      throw new IndexOutOfBoundsException("Tile " + index + " of " + numTiles);
+    }
+    try {
+      return reader.readTileAt(offsetOf(index));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * The number of tiles in the file
+   * 
+   * @returns int numTiles
+   * 
+   * @since 5.0
+   */
+  @Override
+  public int size() {
+    return numTiles;
+  }
+
+  /**
+   * Find the byte offset of a tile
+   * <p>
+   * If the offset is not known yet, skip forward from the last known tile
+   * header, remembering the offset of every tile passed on the way.
+   * 
+   * @param index The index of the tile in the file
+   * 
+   * @returns int Byte offset of the tile header
+   * 
+   * @throws IOException If a tile header before the index is corrupt
+   * 
+   * @since 5.0
+   */
+  private int offsetOf(int index) throws IOException {
+    while (knownOffsets <= index) {
+      if (knownOffsets == offsets.length) {
+        offsets = Arrays.copyOf(offsets,
+            Math.min(numTiles, offsets.length * 2));
+      }
+      offsets[knownOffsets] = reader.skipTileAt(offsets[knownOffsets - 1]);
+      knownOffsets++;
+    }
+    return offsets[index];
+  }
+}
\ No newline at end of file
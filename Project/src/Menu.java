@@ -5,10 +5,13 @@ import javax.swing.*;
 /**
  * Menu Panel for Maze Game
  * <p>
- * The Menu object is a light grey JPanel which has 3 buttons. This creates a
+ * The Menu object is a light grey JPanel which has 6 buttons. This creates a
  * nested appearance when displayed on the GUI. The Menu itself is a darker gray
  * color and that is what is placed into the GameWindow.
  * <p>
+ * Undo and Redo are on a second row below Reset and Hint, so the menu is no
+ * wider than the board.
+ * <p>
  * Each button defines its own size and the menu will adjust its own size based
  * on the button layout
  * 
@@ -33,13 +36,13 @@ public class Menu extends JPanel {
   private static final Color menuColor = Color.decode("#4A4A4A");
 
   // The buttons on the menu are protected so the controller can access them
-  private JButton new_game, reset, quit;
+  private JButton new_game, reset, hint, quit, undo, redo;
 
   /**
    * Class Constructor
    * <p>
    * The constructor creates a non-fixed size JPanel with a light grey color.
-   * Then adds the 3 buttons to the menu.
+   * Then adds the 6 buttons to the menu.
    * <p>
    * The buttons are stored in protected variables so that the GameController
    * can access them and add the necessary functionality
@@ -51,9 +54,12 @@ public class Menu extends JPanel {
   public Menu() {
     this.setBackground(menuColor);
     this.setLayout(new GridBagLayout());
-    new_game = addMenuButton("New Game", 0);
-    reset = addMenuButton("Reset", 1);
-    quit = addMenuButton("Quit", 2);
+    new_game = addMenuButton("New Game", 0, 0);
+    reset = addMenuButton("Reset", 1, 0);
+    hint = addMenuButton("Hint", 2, 0);
+    quit = addMenuButton("Quit", 3, 0);
+    undo = addMenuButton("Undo", 1, 1);
+    redo = addMenuButton("Redo", 2, 1);
     return;
   }
 
@@ -75,6 +81,39 @@ public class Menu extends JPanel {
     return reset;
   }
 
+  /**
+   * Getter for Hint button
+   * 
+   * @return hint button
+   * 
+   * @since 5.0
+   */
+  public JButton getHint() {
+    return hint;
+  }
+
+  /**
+   * Getter for Undo button
+   * 
+   * @return undo button
+   * 
+   * @since 5.0
+   */
+  public JButton getUndo() {
+    return undo;
+  }
+
+  /**
+   * Getter for Redo button
+   * 
+   * @return redo button
+   * 
+   * @since 5.0
+   */
+  public JButton getRedo() {
+    return redo;
+  }
+
   /**
    * Getter for Quit button
    * 
@@ -94,6 +133,7 @@ public class Menu extends JPanel {
    * @param text      The text displayed in the center of the button
    * @param xPosition Where the button "slots" into. This is along the x-axis of
    *                  the subFrame so slot=0 is leftmost button.
+   * @param yPosition The row of the button, 0 is the top row
    * 
    * @returns button The JButton is returned so it can be stored in the class.
    *          This allows GameController to access it
@@ -102,7 +142,7 @@ public class Menu extends JPanel {
    * 
    * @since 3.0
    */
-  private JButton addMenuButton(String label, int xPosition) {
+  private JButton addMenuButton(String label, int xPosition, int yPosition) {
     JButton button = new JButton(label);
     button.setBackground(buttonColor);
     button.setPreferredSize(buttonSize);
@@ -111,6 +151,7 @@ public class Menu extends JPanel {
     GridBagConstraints c = new GridBagConstraints();
     c.insets = new Insets(10, 10, 10, 10);
     c.gridx = xPosition;
+    c.gridy = yPosition;
     c.anchor = GridBagConstraints.CENTER;
     this.add(button, c);
     return button;
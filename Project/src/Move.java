@@ -0,0 +1,114 @@
+
+/**
+ * One move made in a GameEngine: a tile placed in a square, moved into a
+ * holding slot, or rotated a quarter turn.
+ * <p>
+ * A move keeps where the tile was before it, so it can be undone, and where
+ * it went, so it can be made again. Tiles, squares and slots are numbered as
+ * in the GameEngine. Moves are immutable, so a GameHistory can share them.
+ * 
+ * @see GameHistory
+ * @see GameEngine
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class Move {
+
+  // The kinds of move (see GameEngine.place, remove and rotate)
+  public static final int place = 0;
+  public static final int remove = 1;
+  public static final int rotate = 2;
+
+  // What kind of move this is
+  private final int kind;
+
+  // The tile that was moved
+  private final int tile;
+
+  // The square and the slot the tile was in before the move (one is none)
+  private final int fromCell;
+  private final int fromSlot;
+
+  // The square (place) or slot (remove) the tile went to, none for rotate
+  private final int to;
+
+  /**
+   * Class Constructor
+   * 
+   * @param kind     place, remove or rotate
+   * @param tile     The tile that was moved
+   * @param fromCell The square the tile was in, GameEngine.none if it was in a
+   *                 slot
+   * @param fromSlot The slot the tile was in, GameEngine.none if it was on the
+   *                 board
+   * @param to       The square or slot the tile went to, GameEngine.none for a
+   *                 rotation
+   * 
+   * @since 5.0
+   */
+  public Move(int kind, int tile, int fromCell, int fromSlot, int to) {
+    this.kind = kind;
+    this.tile = tile;
+    this.fromCell = fromCell;
+    this.fromSlot = fromSlot;
+    this.to = to;
+    return;
+  }
+
+  /**
+   * Getter for the kind of move
+   * 
+   * @return place, remove or rotate
+   * 
+   * @since 5.0
+   */
+  public int getKind() {
+    return kind;
+  }
+
+  /**
+   * Getter for the tile that was moved
+   * 
+   * @return tile
+   * 
+   * @since 5.0
+   */
+  public int getTile() {
+    return tile;
+  }
+
+  /**
+   * Getter for the square the tile was in before the move
+   * 
+   * @return fromCell, GameEngine.none if the tile was in a slot
+   * 
+   * @since 5.0
+   */
+  public int getFromCell() {
+    return fromCell;
+  }
+
+  /**
+   * Getter for the slot the tile was in before the move
+   * 
+   * @return fromSlot, GameEngine.none if the tile was on the board
+   * 
+   * @since 5.0
+   */
+  public int getFromSlot() {
+    return fromSlot;
+  }
+
+  /**
+   * Getter for where the tile went
+   * 
+   * @return The square for place, the slot for remove, GameEngine.none for
+   *         rotate
+   * 
+   * @since 5.0
+   */
+  public int getTo() {
+    return to;
+  }
+}
\ No newline at end of file
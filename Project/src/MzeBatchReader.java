@@ -0,0 +1,259 @@
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ManagedBlocker;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Reads many .mze files in parallel.
+ * <p>
+ * Every file gets its own MzeFileReader, so no reader state is shared between
+ * threads. The list of files is split in half recursively on a ForkJoinPool
+ * until each task holds a single file, which lets idle workers steal files
+ * from busy ones when some puzzles are much larger than others.
+ * <p>
+ * Reading a file blocks on the disk, so the read is done through a
+ * ManagedBlocker. While a worker waits for its file the pool may start
+ * another worker, so the pool keeps parsing at full speed and a batch on the
+ * common pool does not starve the other users of that pool.
+ * <p>
+ * A file that cannot be read does not stop the batch, its MzeReadResult
+ * records the error instead. The results come back in the same order as the
+ * files (sorted by name when a directory is read).
+ * <p>
+ * This can also be run on its own to validate a directory of puzzles:
+ * {@code java MzeBatchReader <directory>} prints one line per file and exits
+ * with status 1 if any file failed.
+ * 
+ * @see MzeFileReader
+ * @see MzeReadResult
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MzeBatchReader {
+
+  // Only files with this extension are read from a directory
+  private static final String mzeGlob = "*.mze";
+
+  /**
+   * Read every .mze file in a directory on the common ForkJoinPool
+   * 
+   * @param directory The directory holding the .mze files
+   * 
+   * @returns List<MzeReadResult> One result per file, sorted by file name
+   * 
+   * @throws IOException If the directory itself cannot be listed
+   * 
+   * @since 5.0
+   */
+  public static List<MzeReadResult> readDirectory(Path directory)
+      throws IOException {
+    return readDirectory(directory, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Read every .mze file in a directory on the given ForkJoinPool
+   * 
+   * @param directory The directory holding the .mze files
+   * @param pool      The pool that parses the files
+   * 
+   * @returns List<MzeReadResult> One result per file, sorted by file name
+   * 
+   * @throws IOException If the directory itself cannot be listed
+   * 
+   * @since 5.0
+   */
+  public static List<MzeReadResult> readDirectory(Path directory,
+      ForkJoinPool pool) throws IOException {
+    List<Path> files = new ArrayList<Path>();
+    try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory,
+        mzeGlob)) {
+      for (Path file : stream) {
+        if (Files.isRegularFile(file)) {
+          files.add(file);
+        }
+      }
+    }
+    Collections.sort(files);
+    return readFiles(files, pool);
+  }
+
+  /**
+   * Read the given .mze files on the given ForkJoinPool
+   * 
+   * @param files The files to read
+   * @param pool  The pool that parses the files
+   * 
+   * @returns List<MzeReadResult> One result per file, in the same order
+   * 
+   * @since 5.0
+   */
+  public static List<MzeReadResult> readFiles(List<Path> files,
+      ForkJoinPool pool) {
+    MzeReadResult[] results = new MzeReadResult[files.size()];
+    pool.invoke(new ReadTask(files, results, 0, files.size()));
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Read and decode a single .mze file, timing the work
+   * <p>
+   * The bytes are read through a FileBlocker, so a ForkJoinPool worker that
+   * waits on the disk can be replaced while it waits. Any failure is caught
+   * and stored in the result so one bad file does not cancel the rest of the
+   * batch. If the thread is interrupted while reading, the interrupt is kept
+   * and the file is recorded as failed.
+   * 
+   * @param file The file to read
+   * 
+   * @returns MzeReadResult The decoded tiles or the error, with the time taken
+   * 
+   * @since 5.0
+   */
+  public static MzeReadResult readFile(Path file) {
+    long start = System.nanoTime();
+    try {
+      FileBlocker blocker = new FileBlocker(file);
+      ForkJoinPool.managedBlock(blocker);
+      List<PieceData> pieceData = new MzeFileReader(blocker.getData()).read();
+      return new MzeReadResult(file, pieceData, null,
+          System.nanoTime() - start);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new MzeReadResult(file, null, e, System.nanoTime() - start);
+    } catch (IOException | RuntimeException e) {
+      return new MzeReadResult(file, null, e, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Validate a directory of .mze files from the command line
+   * 
+   * @param args The directory to validate (defaults to input)
+   * 
+   * @since 5.0
+   */
+  public static void main(String[] args) {
+    Path directory = Paths.get(args.length > 0 ? args[0] : "input");
+    long start = System.nanoTime();
+    List<MzeReadResult> results;
+    try {
+      results = readDirectory(directory);
+    } catch (IOException e) {
+      System.out.println("Could not list " + directory + ": " + e.getMessage());
+      System.exit(1);
+      return;
+    }
+    int failures = 0;
+    for (MzeReadResult result : results) {
+      System.out.println(result);
+      if (!result.isValid()) {
+        failures++;
+      }
+    }
+    System.out.printf("%d files, %d failed, %.3f ms%n", results.size(),
+        failures, (System.nanoTime() - start) / 1e6);
+    if (failures > 0) {
+      System.exit(1);
+    }
+    return;
+  }
+
+  /**
+   * Reads the bytes of a file as a blocking call the ForkJoinPool knows about
+   * <p>
+   * Outside a ForkJoinPool managedBlock simply calls block.
+   */
+  private static class FileBlocker implements ManagedBlocker {
+
+    // The file to read
+    private final Path file;
+
+    // The bytes of the file, null until they are read
+    private byte[] data = null;
+
+    // Why the file could not be read, null if it has not failed
+    private IOException error = null;
+
+    FileBlocker(Path file) {
+      this.file = file;
+    }
+
+    @Override
+    public boolean block() {
+      try {
+        data = Files.readAllBytes(file);
+      } catch (IOException e) {
+        error = e;
+      }
+      return true;
+    }
+
+    @Override
+    public boolean isReleasable() {
+      return data != null || error != null;
+    }
+
+    /**
+     * The bytes that were read
+     * 
+     * @returns byte[] The whole file
+     * 
+     * @throws IOException If the file could not be read
+     */
+    byte[] getData() throws IOException {
+      if (error != null) {
+        throw error;
+      }
+      return data;
+    }
+  }
+
+  /**
+   * Fork/Join task that reads a range of the file list
+   * <p>
+   * Ranges are split in half until they hold a single file. Each task writes
+   * only its own slots of the shared results array, and the join in
+   * readFiles makes those writes visible to the caller.
+   */
+  private static class ReadTask extends RecursiveAction {
+
+    // Default serialVersion (required for extension of RecursiveAction)
+    private static final long serialVersionUID = 1L;
+
+    private final List<Path> files;
+    private final MzeReadResult[] results;
+    private final int from;
+    private final int to;
+
+    ReadTask(List<Path> files, MzeReadResult[] results, int from, int to) {
+      this.files = files;
+      this.results = results;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= 1) {
+        for (int i = from; i < to; i++) {
+          results[i] = readFile(files.get(i));
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new ReadTask(files, results, from, mid),
+          new ReadTask(files, results, mid, to));
+      return;
+    }
+  }
+}
\ No newline at end of file
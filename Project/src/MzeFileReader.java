@@ -1,5 +1,8 @@
 
+import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -13,9 +16,16 @@ import java.util.List;
  * Each integer or float is 4 bytes. The first 4 bytes are the number of tiles.
  * Then the format goes: TileNumber NumberOfLines 4 coordinates for each line
  * <p>
- * This object reads the byte array passed in and creates a list of PieceData
+ * A reader object reads the bytes passed in and creates a list of PieceData
  * objects. Each PieceData object contains the tile number, number of lines, and
- * the 4 coordinates for each line stored in a list.
+ * the 4 coordinates for each line stored in an int array.
+ * <p>
+ * The data is walked with a single big-endian ByteBuffer. Tiles are read in a
+ * loop (not recursively) so large tile sets cannot overflow the stack, and the
+ * coordinates of each tile are read in bulk through a FloatBuffer view. Every
+ * count is checked against the remaining bytes before anything is allocated,
+ * so a truncated or corrupt file is reported as an IOException instead of an
+ * index error or a huge allocation.
  * 
  * @see GameWindow
  * @see PieceData
@@ -29,141 +39,277 @@ public class MzeFileReader {
   // Each data packet is stored as 4 bytes
   private static final int dataByteSize = 4;
 
+  // Each tile starts with 2 packets (tile number and number of lines)
+  private static final int tileHeaderSize = 2 * dataByteSize;
+
+  // Each line is 4 float coordinates (x1, y1, x2, y2)
+  private static final int lineByteSize = 4 * dataByteSize;
+
   // How many tiles are in the .mze file
-  private static int numTiles;
+  private int numTiles;
 
-  // The next data packet (next 4 bytes)
-  private static byte[] nextData;
+  // Data to read (big-endian view of the .mze bytes)
+  private final ByteBuffer mzeData;
 
-  // The current byte index of the array
-  private static int byteIndex;
+  // Scratch space for the coordinates of one tile (grown as needed)
+  private float[] lineData = new float[0];
 
-  // Data to read
-  private static byte[] mzeData;
+  // Tile number and line count of the last tile header read
+  private int headerTile;
+  private int headerLines;
 
   // List of deciphered data
-  private static List<PieceData> pieceData = new ArrayList<PieceData>();
+  private List<PieceData> pieceData;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Creates a reader over the given .mze bytes. A reader holds its own
+   * position and results, so separate readers can parse separate files on
+   * separate threads at the same time.
+   * 
+   * @param data The .mze bytes to be read
+   * 
+   * @since 5.0
+   */
+  public MzeFileReader(byte[] data) {
+    this(ByteBuffer.wrap(data));
+    return;
+  }
+
+  /**
+   * Class Constructor that reads from a ByteBuffer
+   * <p>
+   * The bytes between the buffer's position and limit are read. The buffer
+   * itself is never moved, the reader works on its own big-endian view.
+   * 
+   * @param data The buffer holding the .mze bytes to be read
+   * 
+   * @since 5.0
+   */
+  public MzeFileReader(ByteBuffer data) {
+    mzeData = data.slice().order(ByteOrder.BIG_ENDIAN);
+    return;
+  }
 
   /**
    * Initializer for the reader
    * <p>
-   * Class method which initializes a new read. Set the current index to 0
-   * (beginning), set the data, and read the number of tiles
+   * Initializes a new read. Rewind the data to the beginning and start a new
+   * result list, then read and validate the number of tiles. Every tile needs
+   * at least 8 bytes, so a tile count that cannot fit in the remaining data is
+   * rejected before any tiles are read.
    * 
-   * @param data The byte date to be read
+   * @throws IOException If the tile count is missing or impossible
    * 
    * @since 4.0
    */
-  private static void initReader(byte[] data) {
-    byteIndex = 0;
-    nextData = new byte[dataByteSize];
-    mzeData = data;
-    readNextFourBytes();
-    numTiles = convertByteToInt(nextData);
+  private void initReader() throws IOException {
+    mzeData.rewind();
+    pieceData = new ArrayList<PieceData>();
+    requireBytes(dataByteSize, "tile count", -1);
+    numTiles = mzeData.getInt();
+    if (numTiles < 0 || numTiles > mzeData.remaining() / tileHeaderSize) {
+      throw new IOException("Invalid tile count " + numTiles + " for "
+          + mzeData.remaining() + " remaining bytes");
+    }
     return;
   }
 
+  /**
+   * Read the .mze data into a list of PieceData objects
+   * <p>
+   * This initializes the reader then reads the data into PieceData objects and
+   * returns the list of PieceDatas. Every call starts from the beginning of the
+   * data and returns a new list owned by the caller.
+   * 
+   * @returns List<PieceData> The list of deciphered piece data
+   * 
+   * @throws IOException If the data is truncated or the counts are invalid
+   * 
+   * @since 5.0
+   */
+  public List<PieceData> read() throws IOException {
+    initReader();
+    readPieceData(numTiles);
+    List<PieceData> result = pieceData;
+    pieceData = null;
+    return result;
+  }
+
   /**
    * Read the .mze file data into a list of PieceData objects
    * <p>
-   * Class method which returns the PieceData list. This initializes the reader
-   * then reads the data into PieceData objects and returns the list of
-   * PieceDatas
+   * Class method which returns the PieceData list. This creates a new reader
+   * for the data, so concurrent calls never share any state.
    * 
    * @param data The data to be read
    * 
    * @returns List<PieceData> The list of deciphered piece data from the byte
    *          array
    * 
+   * @throws IOException If the data is truncated or the counts are invalid
+   * 
    * @since 4.0
    */
-  public static List<PieceData> readData(byte[] data) {
-    initReader(data);
-    readPieceData(numTiles);
-    return pieceData;
+  public static List<PieceData> readData(byte[] data) throws IOException {
+    return new MzeFileReader(data).read();
   }
 
   /**
-   * Converts a byte array to an integer.
+   * Check that the buffer still holds the requested number of bytes
    * <p>
-   * This was taken from Kim Buckners Notes.pdf
+   * This is called for every tile, so the error message is only built when
+   * the check fails.
    * 
-   * @param array The byte array to convert to an integer
-   * @returns The integer from the byte array
+   * @param bytes The number of bytes that are about to be read
+   * @param what  Description of the data used in the error message
+   * @param tile  The number of the tile the data belongs to, -1 if it is not
+   *              part of a tile
    * 
-   * @since 3.0
+   * @throws IOException If fewer bytes remain than requested
+   * 
+   * @since 5.0
    */
-  private static int convertByteToInt(byte[] array) {
-    ByteBuffer buffer = ByteBuffer.wrap(array);
-    return buffer.getInt();
+  private void requireBytes(long bytes, String what, int tile)
+      throws IOException {
+    if (bytes > mzeData.remaining()) {
+      throw new IOException("Unexpected end of .mze data reading " + what
+          + (tile < 0 ? "" : " of tile " + tile) + " at byte "
+          + mzeData.position());
+    }
+    return;
   }
 
   /**
-   * Converts a byte array to a float
+   * Read the bytes into PieceData objects
    * <p>
-   * This was taken from Kim Buckners Notes.pdf
+   * This loops over the mzeData and reads one tile at a time into the
+   * PieceData list.
+   * 
+   * @param remainingTiles The number of tiles left to read
    * 
-   * @param array The byte array to convert to a float
-   * @returns The float from the byte array
+   * @throws IOException If a tile header or its lines are truncated
    * 
-   * @since 3.0
+   * @since 5.0
    */
-  private static float convertByteToFloat(byte[] array) {
-    ByteBuffer buffer = ByteBuffer.wrap(array);
-    return buffer.getFloat();
+  private void readPieceData(int remainingTiles) throws IOException {
+    for (int t = 0; t < remainingTiles; t++) {
+      pieceData.add(readTile());
+    }
+    return;
+  }
+
+  /**
+   * Read the tile count at the start of the data
+   * <p>
+   * Used by readers that decode tiles on demand (MappedMzeFile) rather than
+   * all at once. The count is validated the same way as in read.
+   * 
+   * @returns int The number of tiles in the data
+   * 
+   * @throws IOException If the tile count is missing or impossible
+   * 
+   * @since 5.0
+   */
+  int readTileCount() throws IOException {
+    initReader();
+    pieceData = null;
+    return numTiles;
+  }
+
+  /**
+   * Read the tile that starts at the given byte offset
+   * 
+   * @param offset Byte offset of the tile header within the data
+   * 
+   * @returns PieceData The decoded tile
+   * 
+   * @throws IOException If the tile header or its lines are truncated
+   * 
+   * @since 5.0
+   */
+  PieceData readTileAt(int offset) throws IOException {
+    mzeData.position(offset);
+    return readTile();
   }
 
   /**
-   * Read the Next 4 bytes into the nextData buffer
+   * Find the offset of the tile after the one at the given offset
    * <p>
-   * Since both an integer and a float are represented in 4 bytes This helper
-   * function reads 4 bytes at a time. Populating the nextData list with the
-   * correct bytes, and then incrementing the index
+   * Only the tile header is read, the coordinates are skipped without being
+   * decoded. The line count is still validated against the remaining bytes.
+   * 
+   * @param offset Byte offset of a tile header within the data
+   * 
+   * @returns int Byte offset of the next tile header
+   * 
+   * @throws IOException If the tile header or its lines are truncated
+   * 
+   * @since 5.0
+   */
+  int skipTileAt(int offset) throws IOException {
+    mzeData.position(offset);
+    readTileHeader();
+    return mzeData.position() + headerLines * lineByteSize;
+  }
+
+  /**
+   * Read and validate a tile header at the current position
    * <p>
-   * These are all class variables so there is no need for any return values
+   * The first 8 bytes are the tile number and the number of lines, these are
+   * stored in headerTile and headerLines. The line count is validated against
+   * the remaining bytes, but the position is left at the start of the
+   * coordinates.
    * 
-   * @since 3.0
+   * @throws IOException If the tile header or its lines are truncated
+   * 
+   * @since 5.0
    */
-  private static void readNextFourBytes() {
-    for (int i = byteIndex; i < byteIndex + dataByteSize; i++) {
-      nextData[i - byteIndex] = mzeData[i];
+  private void readTileHeader() throws IOException {
+    requireBytes(tileHeaderSize, "tile header", -1);
+    headerTile = mzeData.getInt();
+    headerLines = mzeData.getInt();
+    if (headerLines < 0) {
+      throw new IOException("Invalid line count " + headerLines
+          + " for tile " + headerTile);
     }
-    byteIndex += dataByteSize;
+    requireBytes((long) headerLines * lineByteSize, "lines", headerTile);
     return;
   }
 
   /**
-   * Read the bytes into PieceData objects (Recursive)
-   * <p>
-   * This is a recursive method that moves through the mzeData and reads the
-   * bytes into the PieceData objects.
+   * Read the tile at the current position into a PieceData object
    * <p>
-   * The first 8 bytes are the tile number and the number of lines. Then for
-   * each line, read 16 bytes. These 16 bytes are the 4 coords for a given line.
-   * That coordinate is added to the PieceData.
-   * <p>
-   * Once all line coordinates have been read, add the tile to the PieceData
-   * list and recurse, decreasing the remainingTiles by 1. Once there are no
-   * remaining tiles, return.
+   * After the header, each line is 16 bytes. These 16 bytes are the 4 coords
+   * for a given line. All of the coordinates of the tile are copied out of a
+   * FloatBuffer view in one bulk get, then truncated into the int array that
+   * the PieceData keeps.
+   * 
+   * @returns PieceData The decoded tile
+   * 
+   * @throws IOException If the tile header or its lines are truncated
+   * 
+   * @since 5.0
    */
-  private static void readPieceData(int remainingTiles) {
-    if (remainingTiles <= 0) {
-      return;
+  private PieceData readTile() throws IOException {
+    readTileHeader();
+    int tile = headerTile;
+    int lines = headerLines;
+
+    int numCoords = lines * 4;
+    if (lineData.length < numCoords) {
+      lineData = new float[numCoords];
     }
-    readNextFourBytes();
-    int tile = convertByteToInt(nextData);
-    readNextFourBytes();
-    int lines = convertByteToInt(nextData);
-    PieceData newTile = new PieceData(tile, lines, 0);
-    for (int i = 0; i < lines; i++) {
-      for (int j = 0; j < 4; j++) {
-        readNextFourBytes();
-        int coord = (int) convertByteToFloat(nextData);
-        newTile.getCoords().add(coord);
-      }
+    FloatBuffer coords = mzeData.asFloatBuffer();
+    coords.get(lineData, 0, numCoords);
+    mzeData.position(mzeData.position() + numCoords * dataByteSize);
+
+    int[] tileCoords = new int[numCoords];
+    for (int i = 0; i < numCoords; i++) {
+      tileCoords[i] = (int) lineData[i];
     }
-    pieceData.add(newTile);
-    readPieceData(remainingTiles - 1);
+    return new PieceData(tile, lines, 0, tileCoords);
   }
 
 }
\ No newline at end of file
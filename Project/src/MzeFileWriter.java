@@ -0,0 +1,132 @@
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Writes PieceData back out in the .mze format.
+ * <p>
+ * This is the reverse of the MzeFileReader. The first 4 bytes are the number
+ * of tiles, then each tile is written as: TileNumber NumberOfLines 4 float
+ * coordinates for each line. Every integer and float is 4 bytes, big-endian,
+ * so anything written here can be read back by the MzeFileReader. Tiles are
+ * always written unrotated, the rotation is part of a game not the tile.
+ * <p>
+ * The size of the output is known before anything is written, so the bytes
+ * are encoded into a single ByteBuffer and written with one channel write.
+ * 
+ * @see MzeFileReader
+ * @see MzePackWriter
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MzeFileWriter {
+
+  // Each data packet is stored as 4 bytes
+  private static final int dataByteSize = 4;
+
+  /**
+   * The number of bytes a tile takes up in the .mze format
+   * 
+   * @param tile The tile to be written
+   * 
+   * @returns int The tile header plus 16 bytes per line
+   * 
+   * @since 5.0
+   */
+  public static int tileSize(PieceData tile) {
+    return (2 + tile.getLineNum() * 4) * dataByteSize;
+  }
+
+  /**
+   * The number of bytes a list of tiles takes up in the .mze format
+   * 
+   * @param tiles The tiles to be written
+   * 
+   * @returns int The tile count plus the size of every tile
+   * 
+   * @since 5.0
+   */
+  public static int dataSize(List<PieceData> tiles) {
+    int size = dataByteSize;
+    for (PieceData tile : tiles) {
+      size += tileSize(tile);
+    }
+    return size;
+  }
+
+  /**
+   * Encode a single tile at the buffer's position
+   * 
+   * @param buffer The big-endian buffer to write into
+   * @param tile   The tile to be written
+   * 
+   * @since 5.0
+   */
+  public static void writeTile(ByteBuffer buffer, PieceData tile) {
+    buffer.putInt(tile.getTileNum());
+    buffer.putInt(tile.getLineNum());
+    for (int i = 0; i < tile.getCoordCount(); i++) {
+      buffer.putFloat(tile.getCoord(0, i));
+    }
+    return;
+  }
+
+  /**
+   * Encode a list of tiles at the buffer's position
+   * 
+   * @param buffer The big-endian buffer to write into
+   * @param tiles  The tiles to be written
+   * 
+   * @since 5.0
+   */
+  public static void writeData(ByteBuffer buffer, List<PieceData> tiles) {
+    buffer.putInt(tiles.size());
+    for (PieceData tile : tiles) {
+      writeTile(buffer, tile);
+    }
+    return;
+  }
+
+  /**
+   * Encode a list of tiles into .mze bytes
+   * 
+   * @param tiles The tiles to be written
+   * 
+   * @returns byte[] The .mze data
+   * 
+   * @since 5.0
+   */
+  public static byte[] toBytes(List<PieceData> tiles) {
+    ByteBuffer buffer = ByteBuffer.allocate(dataSize(tiles));
+    writeData(buffer, tiles);
+    return buffer.array();
+  }
+
+  /**
+   * Write a list of tiles to a .mze file, replacing any existing file
+   * 
+   * @param path  The file to write
+   * @param tiles The tiles to be written
+   * 
+   * @throws IOException If the file cannot be written
+   * 
+   * @since 5.0
+   */
+  public static void write(Path path, List<PieceData> tiles)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.wrap(toBytes(tiles));
+    try (FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+        StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    }
+    return;
+  }
+}
\ No newline at end of file
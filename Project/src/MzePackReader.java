@@ -0,0 +1,237 @@
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Reads puzzles out of an indexed .mzp pack file.
+ * <p>
+ * Opening a pack only reads its 20 byte header. A puzzle is found with one
+ * read of the puzzle index, and a single tile with one more read of that
+ * puzzle's tile index, so any puzzle or tile is reached in constant time no
+ * matter how many puzzles the pack holds. Only the bytes of the requested
+ * puzzle or tile are read from the file.
+ * <p>
+ * All reads are positional reads on the FileChannel, which do not move a
+ * shared position, so a single reader can be used by many threads at once.
+ * Offsets read from the file are checked before they are used and a corrupt
+ * pack is reported as an IOException.
+ * 
+ * @see MzePackWriter
+ * @see MzeFileReader
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MzePackReader implements Closeable {
+
+  // The pack being read
+  private final FileChannel channel;
+
+  // Number of puzzles in the pack
+  private final int numPuzzles;
+
+  // Byte offset of the puzzle index
+  private final long indexOffset;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Opens the pack and reads and validates its header.
+   * 
+   * @param path The pack file to read
+   * 
+   * @throws IOException If the file cannot be opened or is not a valid pack
+   * 
+   * @since 5.0
+   */
+  public MzePackReader(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      ByteBuffer header = read(0, MzePackWriter.headerSize);
+      if (header.getInt() != MzePackWriter.packMagic) {
+        throw new IOException(path + " is not a .mzp pack");
+      }
+      int version = header.getInt();
+      if (version != MzePackWriter.packVersion) {
+        throw new IOException("Unsupported pack version " + version);
+      }
+      numPuzzles = header.getInt();
+      indexOffset = header.getLong();
+      if (numPuzzles < 0 || indexOffset < MzePackWriter.headerSize
+          || indexOffset + 8L * (numPuzzles + 1) > channel.size()) {
+        throw new IOException("Corrupt pack header in " + path);
+      }
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+    return;
+  }
+
+  /**
+   * Getter for the number of puzzles in the pack
+   * 
+   * @return numPuzzles
+   * 
+   * @since 5.0
+   */
+  public int getPuzzleCount() {
+    return numPuzzles;
+  }
+
+  /**
+   * Read every tile of a puzzle
+   * 
+   * @param puzzle The index of the puzzle in the pack
+   * 
+   * @returns List<PieceData> The tiles of the puzzle
+   * 
+   * @throws IOException If the puzzle cannot be read or is corrupt
+   * 
+   * @since 5.0
+   */
+  public List<PieceData> readPuzzle(int puzzle) throws IOException {
+    long[] range = puzzleRange(puzzle);
+    return new MzeFileReader(read(range[0], (int) (range[1] - range[0])))
+        .read();
+  }
+
+  /**
+   * Read the number of tiles in a puzzle
+   * 
+   * @param puzzle The index of the puzzle in the pack
+   * 
+   * @returns int The number of tiles
+   * 
+   * @throws IOException If the puzzle cannot be read or is corrupt
+   * 
+   * @since 5.0
+   */
+  public int getTileCount(int puzzle) throws IOException {
+    long[] range = puzzleRange(puzzle);
+    return tileCount(range);
+  }
+
+  /**
+   * Read a single tile of a puzzle
+   * <p>
+   * The tile is located through the puzzle's tile index, only the index
+   * entries and the tile itself are read from the file.
+   * 
+   * @param puzzle The index of the puzzle in the pack
+   * @param tile   The index of the tile within the puzzle
+   * 
+   * @returns PieceData The decoded tile
+   * 
+   * @throws IOException If the tile cannot be read or is corrupt
+   * 
+   * @since 5.0
+   */
+  public PieceData readTile(int puzzle, int tile) throws IOException {
+    long[] range = puzzleRange(puzzle);
+    int numTiles = tileCount(range);
+    if (tile < 0 || tile >= numTiles) {
+      throw new IndexOutOfBoundsException("Tile " + tile + " of " + numTiles);
+    }
+    long tileIndex = range[1] - 4L * numTiles;
+    long dataEnd = tileIndex - range[0];
+    ByteBuffer entries = read(tileIndex + 4L * tile,
+        tile + 1 < numTiles ? 8 : 4);
+    long start = entries.getInt();
+    long end = entries.hasRemaining() ? entries.getInt() : dataEnd;
+    if (start < 4 || start > end || end > dataEnd) {
+      throw new IOException("Corrupt tile index in puzzle " + puzzle);
+    }
+    return new MzeFileReader(read(range[0] + start, (int) (end - start)))
+        .readTileAt(0);
+  }
+
+  /**
+   * Close the pack file
+   * 
+   * @throws IOException If the channel cannot be closed
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void close() throws IOException {
+    channel.close();
+    return;
+  }
+
+  /**
+   * Look up the start and end byte offsets of a puzzle record
+   * 
+   * @param puzzle The index of the puzzle in the pack
+   * 
+   * @returns long[] The start and end offsets of the record
+   * 
+   * @throws IOException If the index entries cannot be read or are corrupt
+   * 
+   * @since 5.0
+   */
+  private long[] puzzleRange(int puzzle) throws IOException {
+    if (puzzle < 0 || puzzle >= numPuzzles) {
+      throw new IndexOutOfBoundsException("Puzzle " + puzzle + " of "
+          + numPuzzles);
+    }
+    ByteBuffer entries = read(indexOffset + 8L * puzzle, 16);
+    long start = entries.getLong();
+    long end = entries.getLong();
+    if (start < MzePackWriter.headerSize || start + 4 > end
+        || end > indexOffset || end - start > Integer.MAX_VALUE) {
+      throw new IOException("Corrupt index entry for puzzle " + puzzle);
+    }
+    return new long[] { start, end };
+  }
+
+  /**
+   * Read and validate the tile count at the start of a puzzle record
+   * 
+   * @param range The start and end offsets of the record
+   * 
+   * @returns int The number of tiles in the puzzle
+   * 
+   * @throws IOException If the count does not fit in the record
+   * 
+   * @since 5.0
+   */
+  private int tileCount(long[] range) throws IOException {
+    int numTiles = read(range[0], 4).getInt();
+    if (numTiles < 0 || 4L + 12L * numTiles > range[1] - range[0]) {
+      throw new IOException("Corrupt tile count " + numTiles);
+    }
+    return numTiles;
+  }
+
+  /**
+   * Read bytes at a position without moving the channel position
+   * 
+   * @param position Byte offset in the file
+   * @param length   Number of bytes to read
+   * 
+   * @returns ByteBuffer A big-endian buffer holding the bytes, ready to read
+   * 
+   * @throws IOException If the file ends before all bytes are read
+   * 
+   * @since 5.0
+   */
+  private ByteBuffer read(long position, int length) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position + buffer.position());
+      if (read < 0) {
+        throw new EOFException("Pack ends before byte "
+            + (position + length));
+      }
+    }
+    buffer.flip();
+    return buffer;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,156 @@
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes many puzzles into a single indexed .mzp pack file.
+ * <p>
+ * A .mze file can only be read from the front, finding tile N means reading
+ * every tile before it. A pack stores many puzzles with offset tables so the
+ * MzePackReader can seek straight to any puzzle, and to any tile within it.
+ * <p>
+ * The pack format (all values big-endian):
+ * <ul>
+ * <li>Header (20 bytes): int magic "MZPK", int version, int puzzle count,
+ * long byte offset of the puzzle index</li>
+ * <li>Puzzle records, one after the other</li>
+ * <li>Puzzle index: puzzle count + 1 longs, the byte offset of each record
+ * followed by the end of the last record</li>
+ * </ul>
+ * Each puzzle record is a regular .mze file (tile count then tiles) followed
+ * by a tile index of one int per tile, the offset of the tile from the start
+ * of the record. The index of puzzles is written last since the count is not
+ * known until the writer is closed, the header then gets patched to point at
+ * it.
+ * 
+ * @see MzePackReader
+ * @see MzeFileWriter
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MzePackWriter implements Closeable {
+
+  // "MZPK" identifies a pack file
+  static final int packMagic = 0x4D5A504B;
+
+  // Current version of the pack format
+  static final int packVersion = 1;
+
+  // magic + version + count + index offset
+  static final int headerSize = 4 + 4 + 4 + 8;
+
+  // The pack being written
+  private final FileChannel channel;
+
+  // Byte offset of each record written so far, plus the next free byte
+  private long[] offsets = new long[64];
+
+  // How many puzzles have been written
+  private int numPuzzles = 0;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Creates (or replaces) the pack file and reserves room for the header.
+   * 
+   * @param path The pack file to write
+   * 
+   * @throws IOException If the file cannot be created
+   * 
+   * @since 5.0
+   */
+  public MzePackWriter(Path path) throws IOException {
+    channel = FileChannel.open(path, StandardOpenOption.CREATE,
+        StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    offsets[0] = headerSize;
+    channel.position(headerSize);
+    return;
+  }
+
+  /**
+   * Append a puzzle to the pack
+   * <p>
+   * The puzzle is encoded as .mze data followed by its tile index and
+   * written in one channel write.
+   * 
+   * @param tiles The tiles of the puzzle
+   * 
+   * @returns int The index of the puzzle within the pack
+   * 
+   * @throws IOException If the puzzle cannot be written
+   * 
+   * @since 5.0
+   */
+  public int addPuzzle(List<PieceData> tiles) throws IOException {
+    int dataSize = MzeFileWriter.dataSize(tiles);
+    ByteBuffer record = ByteBuffer.allocate(dataSize + 4 * tiles.size());
+    MzeFileWriter.writeData(record, tiles);
+
+    int tileOffset = 4;
+    for (PieceData tile : tiles) {
+      record.putInt(tileOffset);
+      tileOffset += MzeFileWriter.tileSize(tile);
+    }
+    record.flip();
+    writeFully(record);
+
+    if (numPuzzles + 1 == offsets.length) {
+      offsets = Arrays.copyOf(offsets, offsets.length * 2);
+    }
+    offsets[numPuzzles + 1] = channel.position();
+    return numPuzzles++;
+  }
+
+  /**
+   * Write the puzzle index and patch the header, then close the file
+   * 
+   * @throws IOException If the index or header cannot be written
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      long indexOffset = channel.position();
+      ByteBuffer index = ByteBuffer.allocate(8 * (numPuzzles + 1));
+      for (int i = 0; i <= numPuzzles; i++) {
+        index.putLong(offsets[i]);
+      }
+      index.flip();
+      writeFully(index);
+
+      ByteBuffer header = ByteBuffer.allocate(headerSize);
+      header.putInt(packMagic).putInt(packVersion).putInt(numPuzzles)
+          .putLong(indexOffset);
+      header.flip();
+      channel.position(0);
+      writeFully(header);
+    } finally {
+      channel.close();
+    }
+    return;
+  }
+
+  /**
+   * Write every remaining byte of a buffer at the channel's position
+   * 
+   * @param buffer The bytes to write
+   * 
+   * @throws IOException If the channel write fails
+   * 
+   * @since 5.0
+   */
+  private void writeFully(ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+    return;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The result of reading a single .mze file.
+ * <p>
+ * The MzeBatchReader creates one of these for every file it parses. A result
+ * holds the path of the file, how long it took to read and decode, and either
+ * the decoded PieceData list or the error that stopped the read. The fields
+ * are final and the PieceData list is wrapped so tiles cannot be added or
+ * removed, which makes a result safe to hand to another thread once it is
+ * built. The PieceData objects themselves are not copied and can still be
+ * rotated, so a result is not immutable and its tiles should only be changed
+ * by the one thread that owns them.
+ * 
+ * @see MzeBatchReader
+ * @see MzeFileReader
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MzeReadResult {
+
+  // The file that was read
+  private final Path path;
+
+  // The decoded tiles (null if the read failed)
+  private final List<PieceData> pieceData;
+
+  // The reason the read failed (null if the read succeeded)
+  private final Exception error;
+
+  // Time spent reading and decoding the file
+  private final long elapsedNanos;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Exactly one of pieceData and error should be set.
+   * 
+   * @param path         The file that was read
+   * @param pieceData    The decoded tiles, or null if the read failed
+   * @param error        The failure, or null if the read succeeded
+   * @param elapsedNanos Time spent reading and decoding the file
+   * 
+   * @since 5.0
+   */
+  public MzeReadResult(Path path, List<PieceData> pieceData, Exception error,
+      long elapsedNanos) {
+    this.path = path;
+    this.pieceData = pieceData == null ? null
+        : Collections.unmodifiableList(pieceData);
+    this.error = error;
+    this.elapsedNanos = elapsedNanos;
+    return;
+  }
+
+  /**
+   * Getter for the file path
+   * 
+   * @return path
+   * 
+   * @since 5.0
+   */
+  public Path getPath() {
+    return path;
+  }
+
+  /**
+   * Getter for the decoded tiles
+   * 
+   * @return The unmodifiable PieceData list, null if the read failed
+   * 
+   * @since 5.0
+   */
+  public List<PieceData> getPieceData() {
+    return pieceData;
+  }
+
+  /**
+   * Getter for the read failure
+   * 
+   * @return error, null if the read succeeded
+   * 
+   * @since 5.0
+   */
+  public Exception getError() {
+    return error;
+  }
+
+  /**
+   * Checks if the file was read without errors
+   * 
+   * @returns boolean True if the PieceData was decoded
+   * 
+   * @since 5.0
+   */
+  public boolean isValid() {
+    return error == null;
+  }
+
+  /**
+   * Getter for the time spent on this file
+   * 
+   * @return elapsedNanos
+   * 
+   * @since 5.0
+   */
+  public long getElapsedNanos() {
+    return elapsedNanos;
+  }
+
+  /**
+   * One line summary of the result (used by the batch report)
+   * 
+   * @return The path, outcome and time in milliseconds
+   * 
+   * @since 5.0
+   */
+  @Override
+  public String toString() {
+    String outcome = isValid() ? "OK " + pieceData.size() + " tiles"
+        : "FAILED " + error.getMessage();
+    return String.format("%s: %s (%.3f ms)", path, outcome,
+        elapsedNanos / 1e6);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,337 @@
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Runs the search of a PuzzleSolver on every thread of a ForkJoinPool.
+ * <p>
+ * The search tree is split into branches, each branch being the options
+ * placed in the first few squares of the solver's order. A branch places the
+ * options of its next square one at a time and forks each one as a new branch
+ * while the pool is short of queued work, otherwise it searches below the
+ * option itself. Idle threads steal the forked branches, so the work spreads
+ * out to however many threads the pool has. Only the first forkDepth squares
+ * of the order are forked, below them a branch searches inline with the
+ * solver's own stack, so the branches waiting on each other stay few however
+ * large the board is.
+ * <p>
+ * Each thread keeps one PuzzleSolver.Search per round and runs every branch
+ * it picks up in it: the branch places its options and those of the branches
+ * it came from, searches, and takes them all off again before it waits for
+ * the branches it forked. The threads share nothing but a stop flag and the
+ * budget.
+ * <p>
+ * solve stops every branch as soon as one finds a solution. Like
+ * PuzzleSolver.solve it works in rounds: the branches of a round share a
+ * budget of placements, and if they use it up the round is stopped and
+ * repeated with the classes in a new order and twice the budget. A round that
+ * ends within its budget was complete.
+ * <p>
+ * solveAll goes through every solution with no limit.
+ * <p>
+ * This can also be run on its own to check a batch of puzzles:
+ * {@code java ParallelPuzzleSolver [-all] <file.mze>...} prints if each file
+ * can be solved and exits with 1 if any cannot be. With -all it counts the
+ * solutions of each file, stopping at allLimit.
+ * 
+ * @see PuzzleSolver
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class ParallelPuzzleSolver {
+
+  // Fork a branch while the thread has fewer queued branches than this
+  private static final int surplusBranches = 3;
+
+  // Branches only fork in this many of the first squares of the order,
+  // deeper squares are searched inline
+  private static final int forkDepth = 16;
+
+  // Solutions main counts with -all before it stops looking
+  private static final long allLimit = 1000;
+
+  // The puzzle and the pool it is searched on
+  private final PuzzleSolver solver;
+  private final ForkJoinPool pool;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Searches on the common ForkJoinPool.
+   * 
+   * @param solver The puzzle to solve
+   * 
+   * @since 5.0
+   */
+  public ParallelPuzzleSolver(PuzzleSolver solver) {
+    this(solver, ForkJoinPool.commonPool());
+    return;
+  }
+
+  /**
+   * Class Constructor
+   * 
+   * @param solver The puzzle to solve
+   * @param pool   The pool to search on
+   * 
+   * @since 5.0
+   */
+  public ParallelPuzzleSolver(PuzzleSolver solver, ForkJoinPool pool) {
+    this.solver = solver;
+    this.pool = pool;
+    return;
+  }
+
+  /**
+   * Find a correct layout
+   * <p>
+   * Which solution is found depends on how the threads run, so it can differ
+   * from one call to the next.
+   * 
+   * @return The first solution found, null if the puzzle cannot be solved
+   * 
+   * @since 5.0
+   */
+  public PuzzleSolution solve() {
+    AtomicReference<PuzzleSolution> found =
+        new AtomicReference<PuzzleSolution>();
+    long limit = (long) solver.cells * PuzzleSolver.restartNodes;
+    for (int attempt = 0;; attempt++) {
+      Round round = new Round(solver, attempt, limit, solution -> {
+        found.compareAndSet(null, solution);
+        return false;
+      });
+      pool.invoke(new Branch(round));
+      if (found.get() != null || !round.limitReached.get()) {
+        return found.get();
+      }
+      limit = limit > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : limit * 2;
+    }
+  }
+
+  /**
+   * Go through every correct layout
+   * <p>
+   * onSolution is called from many threads at once and must be thread safe.
+   * Solutions come in no particular order. Tiles that draw the same walls
+   * once turned are interchangeable, only one of the layouts that differ just
+   * by swapping them is given.
+   * 
+   * @param onSolution Called with each solution, returns true to keep
+   *                   searching for more
+   * 
+   * @return False if onSolution stopped the search
+   * 
+   * @since 5.0
+   */
+  public boolean solveAll(Predicate<PuzzleSolution> onSolution) {
+    Round round = new Round(solver, 0, Long.MAX_VALUE, onSolution);
+    pool.invoke(new Branch(round));
+    return !round.stopped.get();
+  }
+
+  /**
+   * Solve a batch of .mze files from the command line
+   * 
+   * @param args The files to solve, -all first to count the solutions
+   * 
+   * @throws IOException If a file cannot be read
+   * 
+   * @since 5.0
+   */
+  public static void main(String[] args) throws IOException {
+    boolean all = args.length > 0 && args[0].equals("-all");
+    boolean solvedAll = true;
+    for (int i = all ? 1 : 0; i < args.length; i++) {
+      List<PieceData> pieceData = MappedMzeFile.open(Paths.get(args[i]));
+      PuzzleSolver solver = new PuzzleSolver(pieceData,
+          GameController.rowsFor(pieceData.size()),
+          GameController.columnsFor(pieceData.size()));
+      ParallelPuzzleSolver parallel = new ParallelPuzzleSolver(solver);
+      long start = System.nanoTime();
+      String result;
+      if (all) {
+        AtomicLong count = new AtomicLong();
+        parallel.solveAll(solution -> count.incrementAndGet() < allLimit);
+        result = (count.get() < allLimit ? "" : "at least ") + count.get()
+            + " solutions";
+        solvedAll &= count.get() > 0;
+      } else {
+        boolean solved = parallel.solve() != null;
+        result = solved ? "solved" : "no solution";
+        solvedAll &= solved;
+      }
+      long elapsed = System.nanoTime() - start;
+      System.out.printf("%s: %d tiles, %s, %.3f ms%n", args[i],
+          pieceData.size(), result, elapsed / 1e6);
+    }
+    if (!solvedAll) {
+      System.exit(1);
+    }
+    return;
+  }
+
+  /**
+   * The settings and shared state of one pass over the whole search tree
+   */
+  private static class Round {
+
+    // The puzzle being solved
+    private final PuzzleSolver solver;
+
+    // The order every search of this round tries the classes in
+    private final int[] classOrder;
+
+    // Placements left for the branches, null if there is no limit
+    private final AtomicLong budget;
+
+    // Called with each solution
+    private final Predicate<PuzzleSolution> onSolution;
+
+    // Set once every branch should stop
+    private final AtomicBoolean stopped = new AtomicBoolean();
+
+    // Set if the branches used up the budget
+    private final AtomicBoolean limitReached = new AtomicBoolean();
+
+    // The search each thread runs its branches of this round in
+    private final ThreadLocal<PuzzleSolver.Search> searches =
+        ThreadLocal.withInitial(this::newSearch);
+
+    Round(PuzzleSolver solver, int attempt, long nodeLimit,
+        Predicate<PuzzleSolution> onSolution) {
+      this.solver = solver;
+      classOrder = solver.classOrder(attempt == 0 ? null
+          : new Random(PuzzleSolver.restartSeed + attempt));
+      this.budget = nodeLimit == Long.MAX_VALUE ? null
+          : new AtomicLong(nodeLimit);
+      this.onSolution = onSolution;
+    }
+
+    // A search in this round's class order
+    PuzzleSolver.Search newSearch() {
+      PuzzleSolver.Search search = new PuzzleSolver.Search(solver,
+          classOrder);
+      search.stopped = stopped;
+      search.sharedBudget = budget;
+      return search;
+    }
+
+    // Pass a solution on, returns false once the round should stop
+    boolean report(PuzzleSolution solution) {
+      if (stopped.get()) {
+        return false;
+      }
+      if (!onSolution.test(solution)) {
+        stopped.set(true);
+        return false;
+      }
+      return true;
+    }
+  }
+
+  /**
+   * The part of the search tree below the options already placed in the
+   * first squares of the order
+   * <p>
+   * A branch only keeps the option it adds to the branch it was forked from,
+   * the options before it are found by following the parents.
+   */
+  private static class Branch extends RecursiveAction {
+
+    // Default serialVersion (required for extension of RecursiveAction)
+    private static final long serialVersionUID = 1L;
+
+    // The round this branch is part of
+    private final Round round;
+
+    // The branch this one was forked from, null for the whole tree
+    private final Branch parent;
+
+    // The option (class * 4 + turns, or -1 for empty) this branch places in
+    // the last square before it
+    private final int option;
+
+    // Number of squares of the order filled before this branch
+    private final int depth;
+
+    // The whole search tree
+    Branch(Round round) {
+      this(round, null, 0, 0);
+    }
+
+    // The tree below one more option than parent
+    Branch(Round round, Branch parent, int option, int depth) {
+      this.round = round;
+      this.parent = parent;
+      this.option = option;
+      this.depth = depth;
+    }
+
+    @Override
+    protected void compute() {
+      if (round.stopped.get()) {
+        return;
+      }
+      PuzzleSolver solver = round.solver;
+      PuzzleSolver.Search search = round.searches.get();
+      for (Branch b = this; b.parent != null; b = b.parent) {
+        search.place(search.order[b.depth - 1],
+            b.option < 0 ? PuzzleSolver.empty : b.option >> 2, b.option & 3);
+      }
+      if (depth == solver.cells) {
+        round.report(search.toSolution());
+        takeBack(search);
+        return;
+      }
+      int cell = search.order[depth];
+      Deque<Branch> forked = new ArrayDeque<Branch>();
+      search.cursor[depth] = 0;
+      while (!round.stopped.get() && search.advance(depth)) {
+        if (depth < forkDepth && depth + 1 < solver.cells
+            && getSurplusQueuedTaskCount() < surplusBranches) {
+          int cls = search.cellClass[cell];
+          Branch branch = new Branch(round, this,
+              cls < 0 ? -1 : (cls * 4) + search.cellTurns[cell], depth + 1);
+          branch.fork();
+          forked.push(branch);
+        } else if (!search.run(depth + 1, round::report)) {
+          if (search.limitReached) {
+            round.limitReached.set(true);
+          }
+          round.stopped.set(true);
+          round.searches.remove();
+          search = null;
+          break;
+        }
+        search.undo(cell);
+      }
+      if (search != null) {
+        takeBack(search);
+      }
+      while (!forked.isEmpty()) {
+        forked.pop().join();
+      }
+      return;
+    }
+
+    // Take this branch's options and its parents' off the search, so the
+    // thread can run other branches in it while this one waits
+    private void takeBack(PuzzleSolver.Search search) {
+      for (Branch b = this; b.parent != null; b = b.parent) {
+        search.undo(search.order[b.depth - 1]);
+      }
+    }
+  }
+}
\ No newline at end of file
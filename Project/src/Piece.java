@@ -6,9 +6,6 @@ import java.awt.event.ActionListener;
 import javax.swing.*;
 import javax.swing.border.Border;
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * The Piece object has 2 different constructors, one to create a regular piece
  * (this is used for the visible and invisible pieces) and one to create a slot
@@ -22,6 +19,14 @@ import java.util.List;
  * A piece can also have its holding area set so when the piece is moved the
  * controller can simply check where it needs to be removed from.
  * <p>
+ * Every piece knows where it is: the board and square it is on, or the slot of
+ * its holding area. The board and holding areas keep these up to date, so a
+ * piece is found in constant time instead of searching for it.
+ * <p>
+ * A piece in a holding area or on a virtual board is not a component of it,
+ * the holding area or board paints it instead, and the piece sends its
+ * repaints to whichever one is painting it.
+ * <p>
  * A piece can be selected or deselected which will change its color to a darker
  * shade of blue if selected and reset back to the sky blue if deselected
  * 
@@ -54,6 +59,13 @@ public class Piece extends JPanel implements ActionListener {
   // Pointer to the holding area that holds this piece
   private HoldingArea holdingArea;
 
+  // The board this piece is on and its square on that board
+  private Board board;
+  private int boardCell = -1;
+
+  // The slot of the holding area this piece is in (-1 if it is not in one)
+  private int holdingSlot = -1;
+
   // Used for the error flash when the user makes an invalid move
   private int flashCount = 1;
 
@@ -116,10 +128,76 @@ public class Piece extends JPanel implements ActionListener {
     return holdingArea;
   }
 
+  /**
+   * Returns the slot of the holding area this piece is in
+   * 
+   * @returns holdingSlot The index of the slot, -1 if the piece is not in its
+   *          holding area
+   * 
+   * @since 5.0
+   */
+  public int getHoldingSlot() {
+    return holdingSlot;
+  }
+
+  /**
+   * Sets the slot of the holding area this piece is in
+   * 
+   * @param slot The index of the slot, -1 if the piece left its holding area
+   * 
+   * @see HoldingArea
+   * 
+   * @since 5.0
+   */
+  public void setHoldingSlot(int slot) {
+    holdingSlot = slot;
+    return;
+  }
+
+  /**
+   * Sets the board this piece is on
+   * 
+   * @param Board The board holding this piece, null if it is not on one
+   * @param cell  The row-major index of its square, -1 if it is not on one
+   * 
+   * @see Board
+   * 
+   * @since 5.0
+   */
+  public void setBoard(Board Board, int cell) {
+    board = Board;
+    boardCell = cell;
+    return;
+  }
+
+  /**
+   * Returns the board this piece is on
+   * 
+   * @returns board The board, null if the piece is not on a board
+   * 
+   * @since 5.0
+   */
+  public Board getBoard() {
+    return board;
+  }
+
+  /**
+   * Returns the square of the board this piece is on
+   * 
+   * @returns boardCell The row-major index of the square, -1 if the piece is
+   *          not on a board
+   * 
+   * @since 5.0
+   */
+  public int getBoardCell() {
+    return boardCell;
+  }
+
   /**
    * Draw the lines for the maze image
    * <p>
-   * This will also rotate the lines according to the PieceDatas rotation value
+   * The lines are drawn at the PieceDatas current rotation, the rotated
+   * coordinates are already stored in the PieceData so nothing is recomputed.
    * 
    * @param PieceData the data that defines the coordinates for the lines on
    *                  this piece
@@ -129,9 +207,6 @@ public class Piece extends JPanel implements ActionListener {
   public void drawImage(PieceData PieceData) {
     pieceData = PieceData;
     drawLines = true;
-    for (int i = 0; i < PieceData.getRotation() + 1; i++) {
-      this.rotate();
-    }
     this.revalidate();
     this.repaint();
     return;
@@ -169,43 +244,93 @@ public class Piece extends JPanel implements ActionListener {
     return !drawLines;
   }
 
-  /**
-   * Rotates the pieceData and redraws the piece
-   * 
-   * @since 4.0
-   */
-  public void rotate() {
-    pieceData.rotate();
-    this.revalidate();
-    this.repaint();
-    return;
-  }
-
   /**
    * Draw the Lines from the pieceData onto the JPanel
    * <p>
    * This overriden method draws the graphics onto the piece. If the piece is a
-   * placeholder, do not draw anything. Otherwise set the line color to black
-   * (may change to dark gray). Then use the coordinates from The tile data to
-   * draw each line onto the Piece.
+   * placeholder, do not draw anything. Otherwise the background and the black
+   * lines from the tile data are copied from an image in the TileImageCache.
+   * The lines are only stroked the first time a tile is drawn at a given
+   * rotation and color, every later repaint is a single image copy.
    * 
    * @param g Graphics object for the JPanel
    * 
+   * @see TileImageCache
+   * 
    * @since 3.0
    **/
   @Override
   protected void paintComponent(Graphics g) {
     if (drawLines) {
-      super.paintComponent(g);
-      Graphics2D graphics = (Graphics2D) g;
-      graphics.setColor(Color.black);
-      graphics.setStroke(new BasicStroke(2));
-      List<Integer> coords = pieceData.getCoords();
-      for (int i = 0; i < coords.size(); i += 4) {
-        graphics.drawLine(coords.get(i), coords.get(i + 1), coords.get(i + 2),
-            coords.get(i + 3));
-      }
+      Image image = TileImageCache.getShared().getImage(pieceData,
+          getBackground(), getWidth(), getHeight(),
+          getGraphicsConfiguration());
+      g.drawImage(image, 0, 0, null);
+    }
+    return;
+  }
+
+  /**
+   * Paint this piece at a given place and size
+   * <p>
+   * Used by a board or a holding area to paint its pieces straight onto
+   * itself. The tile comes from the TileImageCache at the size of the
+   * square, a blank is filled with its background instead. Then the border is
+   * drawn on top (this is how the error flash shows).
+   * 
+   * @param g    Graphics object of the board
+   * @param x    The x pixel of the top left of the square
+   * @param y    The y pixel of the top left of the square
+   * @param size The size of the square in pixels
+   * @param gc   The configuration of the board's screen, may be null
+   * 
+   * @see Board
+   * 
+   * @since 5.0
+   */
+  public void paintTile(Graphics g, int x, int y, int size,
+      GraphicsConfiguration gc) {
+    if (drawLines) {
+      Image image = TileImageCache.getShared().getImage(pieceData,
+          getBackground(), size, size, gc);
+      g.drawImage(image, x, y, null);
+    } else {
+      g.setColor(getBackground());
+      g.fillRect(x, y, size, size);
+    }
+    Border border = getBorder();
+    if (border != null) {
+      border.paintBorder(this, g, x, y, size, size);
+    }
+    return;
+  }
+
+  /**
+   * Repaint this piece
+   * <p>
+   * A piece that is not a component of anything is painted by its board or
+   * its holding area, so the repaint goes to the one holding it, which
+   * paints the square or slot this piece is in again.
+   * 
+   * @param tm     Maximum time in milliseconds before the update
+   * @param x      The x coordinate of the dirty area
+   * @param y      The y coordinate of the dirty area
+   * @param width  The width of the dirty area
+   * @param height The height of the dirty area
+   * 
+   * @since 5.0
+   */
+  @Override
+  public void repaint(long tm, int x, int y, int width, int height) {
+    if (getParent() == null && board != null) {
+      board.repaintPiece(this);
+      return;
+    }
+    if (getParent() == null && holdingArea != null) {
+      holdingArea.repaintPiece(this);
+      return;
     }
+    super.repaint(tm, x, y, width, height);
     return;
   }
 
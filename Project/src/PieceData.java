@@ -1,7 +1,4 @@
 
-import java.util.ArrayList;
-import java.util.List;
-
 /**
  * PieceData is a dataclass for the coordinates of the lines for the Piece. The
  * default.mze file defines all coordinates of all lines for all pieces. These
@@ -12,35 +9,56 @@ import java.util.List;
  * each line there is a set of 4 coordinates.
  * <p>
  * This class stores all the data for an individual tile. The coordinates are
- * stored in a single dimension list, since we know there are 4 coordinates per
- * line there is no need to have a dynamic 2D list
+ * stored in a single dimension int array, since we know there are 4
+ * coordinates per line there is no need to have a dynamic 2D list. A primitive
+ * array keeps every coordinate unboxed, so a tile with n lines costs 16n bytes
+ * of coordinates rather than n * 4 Integer objects.
+ * <p>
+ * The coordinates for all 4 rotations are worked out once when the data is
+ * created. Rotating a piece only changes which of the 4 arrays is used, the
+ * coordinates themselves never change. This means the arrays can be shared by
+ * every copy of the data (the current game, the initial data used by Reset,
+ * and so on) without ever being copied.
  * 
  * @author Sebastian Colwell
  * @version %I%, %G%
  * @since 3.0
  */
 public class PieceData implements Cloneable {
-  private int tileNum;
-  private int numLines;
+  private final int tileNum;
+  private final int numLines;
   private int rotation = 3;
-  private List<Integer> coords = new ArrayList<Integer>();
+
+  // Coordinates for 0, 1, 2 and 3 clockwise turns (never modified)
+  private final int[][] rotations = new int[4][];
 
   /**
-   * The constructor requires the tile number and number of lines The
-   * coordinates are set as the data is read, so they are not required in the
-   * constructor
+   * The constructor requires the tile number, number of lines and the
+   * coordinates of every line. The coordinates are packed as x1, y1, x2, y2
+   * for each line, so there must be exactly 4 per line. The array is used as
+   * is (not copied) for the unrotated coordinates, the caller hands it over to
+   * this object. The 3 rotated copies are made here.
    * 
    * @param tile   The Original tile number ie 0 -15
    * @param lines  The Number of lines in the image
    * @param rotate The number of rotations for the coordinates
+   * @param coords The packed line coordinates
    * 
-   * @see MzeReader
-   * @since 3.0
+   * @see MzeFileReader
+   * @since 5.0
    */
-  public PieceData(int tile, int lines, int rotate) {
+  public PieceData(int tile, int lines, int rotate, int[] coords) {
+    if (coords.length != lines * 4) {
+      throw new IllegalArgumentException("Tile " + tile + " has " + lines
+          + " lines but " + coords.length + " coordinates");
+    }
     tileNum = tile;
     numLines = lines;
     rotation = rotate;
+    rotations[0] = coords;
+    for (int r = 1; r < 4; r++) {
+      rotations[r] = rotateCoords(rotations[r - 1]);
+    }
     return;
   }
 
@@ -89,16 +107,104 @@ public class PieceData implements Cloneable {
   }
 
   /**
-   * Getter for the line coordinates list
+   * Getter for the number of clockwise turns the lines are drawn with
+   * <p>
+   * The rotations are as follows: 0 = 90 deg 1 = 180 deg 2 = 270 deg 3 = 360
+   * deg (No rotation), so a rotation of r is drawn with r + 1 turns.
    * 
-   * @return coords
+   * @return The number of quarter turns (0 - 3)
+   * 
+   * @since 5.0
    */
-  public List<Integer> getCoords() {
-    return coords;
+  public int getTurns() {
+    return (rotation + 1) & 3;
   }
 
   /**
-   * Rotates the coordinates 90 degrees clockwise
+   * Getter for a single line coordinate at the current rotation
+   * <p>
+   * Line n is made of the coordinates at 4n (x1), 4n + 1 (y1), 4n + 2 (x2) and
+   * 4n + 3 (y2).
+   * 
+   * @param index The index of the coordinate
+   * 
+   * @return The coordinate at the index
+   * 
+   * @since 5.0
+   */
+  public int getCoord(int index) {
+    return rotations[getTurns()][index];
+  }
+
+  /**
+   * Getter for a single line coordinate at a given number of turns
+   * 
+   * @param turns The number of clockwise quarter turns (0 - 3)
+   * @param index The index of the coordinate
+   * 
+   * @return The coordinate at the index
+   * 
+   * @since 5.0
+   */
+  public int getCoord(int turns, int index) {
+    return rotations[turns & 3][index];
+  }
+
+  /**
+   * Getter for the shared coordinate array at a given number of turns
+   * <p>
+   * This is the array stored inside the PieceData (and shared with every
+   * clone), not a copy. It must not be modified. It is meant for code that
+   * walks every coordinate in a hot loop, and since each tile and rotation has
+   * exactly one array, it also works as an identity for that tile geometry.
+   * 
+   * @param turns The number of clockwise quarter turns (0 - 3)
+   * 
+   * @return The coordinate array for the rotation
+   * 
+   * @since 5.0
+   */
+  int[] getCoords(int turns) {
+    return rotations[turns & 3];
+  }
+
+  /**
+   * Getter for the number of coordinates (4 per line)
+   * 
+   * @return The length of the coordinate array
+   * 
+   * @since 5.0
+   */
+  public int getCoordCount() {
+    return rotations[0].length;
+  }
+
+  /**
+   * Copy of the line coordinates at the current rotation
+   * 
+   * @return A new array holding every coordinate
+   * 
+   * @since 5.0
+   */
+  public int[] copyCoords() {
+    return rotations[getTurns()].clone();
+  }
+
+  /**
+   * Rotates the piece 90 degrees clockwise
+   * <p>
+   * The rotated coordinates were already worked out by the constructor, so
+   * this only moves on to the next rotation.
+   * 
+   * @since 4.0
+   */
+  public void rotate() {
+    rotation = (rotation + 1) & 3;
+    return;
+  }
+
+  /**
+   * Rotates a set of coordinates 90 degrees clockwise
    * <p>
    * Every 4 integers in the coordinates represents a line. The 4 ints represent
    * x1, y1, x2, y2 respectively.
@@ -111,39 +217,29 @@ public class PieceData implements Cloneable {
    * Note that this only performs 90 degree rotations about a point where x == y
    * the math was able to be reduced.
    * 
-   * @since 4.0
+   * @param coords The coordinates to rotate (not modified)
+   * 
+   * @return A new array with the rotated coordinates
+   * 
+   * @since 5.0
    */
-  public void rotate() {
-    for (int i = 0; i < coords.size(); i += 4) {
-      int x1 = coords.get(i);
-      int y1 = coords.get(i + 1);
-      int x2 = coords.get(i + 2);
-      int y2 = coords.get(i + 3);
-
-      int nx1 = (-1 * y1) + 100;
-      int ny1 = x1;
-      int nx2 = (-1 * y2) + 100;
-      int ny2 = x2;
-
-      coords.set(i, nx1);
-      coords.set(i + 1, ny1);
-      coords.set(i + 2, nx2);
-      coords.set(i + 3, ny2);
+  private static int[] rotateCoords(int[] coords) {
+    int[] rotated = new int[coords.length];
+    for (int i = 0; i < coords.length; i += 4) {
+      rotated[i] = (-1 * coords[i + 1]) + 100;
+      rotated[i + 1] = coords[i];
+      rotated[i + 2] = (-1 * coords[i + 3]) + 100;
+      rotated[i + 3] = coords[i + 2];
     }
-    return;
+    return rotated;
   }
 
   /**
-   * Clones a PieceData Object (used to store initial data)
-   * <p>
-   * The PieceData objects are stored in lists each object corresponds to a
-   * single piece. In order to store the initial data, the lists of PieceData
-   * objects cannot be copied by Collections or by a loop. Instead a clone
-   * method is implemented to create a deep copy of the object.
+   * Clones a PieceData Object
    * <p>
-   * The coordinates of the data is a mutable object, so it must be manually
-   * copied outside of the super.clone call. Each coordinate is an Integer
-   * object so it must be cast to a primitive in order to clone it.
+   * The only state that can change is the rotation, which super.clone copies.
+   * The coordinate arrays are never modified so the clone shares them with
+   * this object rather than copying every coordinate.
    * 
    * @since 4.0
    */
@@ -152,11 +248,6 @@ public class PieceData implements Cloneable {
     PieceData cpy = null;
     try {
       cpy = (PieceData) super.clone();
-      List<Integer> cpy_coords = new ArrayList<Integer>();
-      for (Integer i : this.coords) {
-        cpy_coords.add(Integer.valueOf(i));
-      }
-      cpy.coords = cpy_coords;
     } catch (CloneNotSupportedException e) {
       e.printStackTrace();
     }
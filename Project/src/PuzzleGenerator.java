@@ -0,0 +1,556 @@
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Makes new puzzles, each one a maze cut into tiles.
+ * <p>
+ * A puzzle starts as one maze drawn over the whole board. Each square of the
+ * board is split into a 4 x 4 grid of 25px cells (the grid every EdgeSignature
+ * is measured on) and a perfect maze is carved through all of them, with a
+ * closed outside wall apart from an entrance in the top row and an exit in the
+ * bottom row. The maze is then cut into tiles along the square edges. A wall
+ * inside a square is drawn by that square's tile, a wall on the edge between
+ * two squares is drawn by only one of them, and every square on the outside of
+ * the board draws its part of the outside wall. The tiles are written in the
+ * order they were cut and unturned, which is how a .mze file gives its maze.
+ * The game shuffles and turns them when a new game starts, and the maze is
+ * then the layout that solves the puzzle.
+ * <p>
+ * Before the tiles are returned they are checked without the maze: a copy is
+ * shuffled and turned, and a PuzzleSolver has to find a layout for it that
+ * keeps the edge rules and passes PuzzleSolver.check. That only looks at the
+ * lines of the tiles, so it catches a tile cut with a wall its neighbour also
+ * draws, or a hole in the outside wall, whatever went wrong to make it.
+ * <p>
+ * The difficulty (0 - 1) is the chance that the walls on an edge between two
+ * squares are shared out between both tiles one quarter at a time, rather
+ * than all going to one of them. A tile with a bare side fits next to
+ * anything, so at 0 most tiles keep the edge rules in many squares and there
+ * are many layouts to choose from. A shared edge only fits tiles whose walls
+ * interlock with it, so at 1 there are few, and a tile that looked right is
+ * often found to be wrong only when the squares around it fill up.
+ * <p>
+ * Every puzzle comes from its own seed, so a batch made on many threads is the
+ * same as one made on a single thread, and any puzzle can be made again from
+ * its seed. Batches are split in half on a ForkJoinPool like the
+ * MzeBatchReader until each task holds a few puzzles.
+ * <p>
+ * The .mze format does not store the board size, the game uses the squarest
+ * board that holds the tiles (GameController.rowsFor and columnsFor), so rows
+ * and columns should be equal, or columns one more than rows, for the puzzle
+ * to open in the game as generated. The solvers accept any size.
+ * <p>
+ * This can also be run on its own:
+ * {@code java PuzzleGenerator <rows> <columns> <count> <out> [difficulty]
+ * [seed]} writes count puzzles into the directory out, or into a single pack
+ * if out ends in .mzp.
+ * 
+ * @see MzeFileWriter
+ * @see MzePackWriter
+ * @see EdgeSignature
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class PuzzleGenerator {
+
+  // Maze cells across each side of a square (25px each)
+  private static final int cellsPerSide = 4;
+
+  // Length of a maze cell in tile coordinates
+  private static final int cellSize = 25;
+
+  // Walls on the edge of a tile are drawn this far inside it, like the tiles
+  // of default.mze, so both tiles next to an edge show their walls
+  private static final int edgeInset = 1;
+
+  // A fork join task makes at most this many puzzles without splitting
+  private static final int puzzlesPerTask = 16;
+
+  // Puzzles are made this many at a time when writing, so a large batch is
+  // never held in memory all at once
+  private static final int writeBatch = 4096;
+
+  // Number of squares down and across the board
+  private final int rows;
+  private final int columns;
+
+  // The chance the walls on an edge between squares are shared by both tiles
+  private final double difficulty;
+
+  // Number of maze cells down and across the whole board
+  private final int height;
+  private final int width;
+
+  /**
+   * Class Constructor
+   * 
+   * @param rows       The number of squares down the board
+   * @param columns    The number of squares across the board
+   * @param difficulty The difficulty, 0 - 1
+   * 
+   * @throws IllegalArgumentException If the board is empty or the difficulty
+   *                                  is outside 0 - 1
+   * 
+   * @since 5.0
+   */
+  public PuzzleGenerator(int rows, int columns, double difficulty) {
+    if (rows < 1 || columns < 1) {
+      throw new IllegalArgumentException("Cannot generate a " + rows + " x "
+          + columns + " board");
+    }
+    if (!(difficulty >= 0 && difficulty <= 1)) {
+      throw new IllegalArgumentException("Difficulty " + difficulty
+          + " is not between 0 and 1");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    this.difficulty = difficulty;
+    height = rows * cellsPerSide;
+    width = columns * cellsPerSide;
+    return;
+  }
+
+  /**
+   * Make one puzzle
+   * 
+   * @param seed Picks the puzzle, the same seed always gives the same tiles
+   * 
+   * @return rows * columns tiles, unturned, in the order they were cut
+   * 
+   * @throws IllegalStateException If the tiles have no layout that keeps the
+   *                               edge rules
+   * 
+   * @since 5.0
+   */
+  public List<PieceData> generate(long seed) {
+    SplittableRandom random = new SplittableRandom(seed);
+    Maze maze = new Maze(random);
+    int cells = rows * columns;
+    List<PieceData> tiles = new ArrayList<PieceData>(cells);
+    for (int cell = 0; cell < cells; cell++) {
+      int[] coords = maze.cut(cell / columns, cell % columns);
+      tiles.add(new PieceData(cell, coords.length / 4, 3, coords));
+    }
+    if (!hasLayout(tiles, random)) {
+      throw new IllegalStateException("Generated tiles for seed " + seed
+          + " have no layout that keeps the edge rules");
+    }
+    return tiles;
+  }
+
+  /**
+   * Checks that a PuzzleSolver can lay out a shuffled and turned copy of a
+   * puzzle
+   * 
+   * @param tiles  The tiles of the puzzle, left as they are
+   * @param random Shuffles and turns the copy
+   * 
+   * @return True if the solver finds a layout and it passes the solver's
+   *         check
+   * 
+   * @since 5.0
+   */
+  private boolean hasLayout(List<PieceData> tiles, SplittableRandom random) {
+    List<PieceData> mixed = new ArrayList<PieceData>(tiles);
+    for (int i = mixed.size() - 1; i > 0; i--) {
+      int other = random.nextInt(i + 1);
+      PieceData tmp = mixed.get(other);
+      mixed.set(other, mixed.get(i));
+      mixed.set(i, tmp);
+    }
+    for (int i = 0; i < mixed.size(); i++) {
+      int[] coords = mixed.get(i).getCoords(random.nextInt(4)).clone();
+      mixed.set(i, new PieceData(i, coords.length / 4, 3, coords));
+    }
+    PuzzleSolver solver = new PuzzleSolver(mixed, rows, columns);
+    PuzzleSolution solution = solver.solve();
+    return solution != null && solver.check(solution);
+  }
+
+  /**
+   * Make a batch of puzzles on a ForkJoinPool
+   * 
+   * @param firstSeed The seed of the first puzzle, the rest count up from it
+   * @param count     The number of puzzles
+   * @param pool      The pool that makes the puzzles
+   * 
+   * @return The puzzles in seed order
+   * 
+   * @since 5.0
+   */
+  public List<List<PieceData>> generate(long firstSeed, int count,
+      ForkJoinPool pool) {
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    List<PieceData>[] puzzles = new List[count];
+    pool.invoke(new GenerateTask(firstSeed, puzzles, null, 0, count));
+    return Arrays.asList(puzzles);
+  }
+
+  /**
+   * Make a batch of puzzles and write each to its own .mze file
+   * <p>
+   * Files are named puzzle-ROWSxCOLUMNS-SEED.mze and are written by the
+   * thread that made them.
+   * 
+   * @param directory The directory to write into, created if missing
+   * @param firstSeed The seed of the first puzzle, the rest count up from it
+   * @param count     The number of puzzles
+   * @param pool      The pool that makes and writes the puzzles
+   * 
+   * @throws IOException If the directory or a file cannot be written
+   * 
+   * @since 5.0
+   */
+  public void writeFiles(Path directory, long firstSeed, int count,
+      ForkJoinPool pool) throws IOException {
+    Files.createDirectories(directory);
+    try {
+      pool.invoke(new GenerateTask(firstSeed, null, directory, 0, count));
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    return;
+  }
+
+  /**
+   * Make a batch of puzzles and write them into a .mzp pack
+   * <p>
+   * Puzzles are made in parallel writeBatch at a time and added to the pack
+   * in seed order, so puzzle i of the pack has seed firstSeed + i.
+   * 
+   * @param pack      The pack file to write
+   * @param firstSeed The seed of the first puzzle, the rest count up from it
+   * @param count     The number of puzzles
+   * @param pool      The pool that makes the puzzles
+   * 
+   * @throws IOException If the pack cannot be written
+   * 
+   * @since 5.0
+   */
+  public void writePack(Path pack, long firstSeed, int count,
+      ForkJoinPool pool) throws IOException {
+    try (MzePackWriter writer = new MzePackWriter(pack)) {
+      for (int done = 0; done < count; done += writeBatch) {
+        int batch = Math.min(writeBatch, count - done);
+        for (List<PieceData> puzzle : generate(firstSeed + done, batch,
+            pool)) {
+          writer.addPuzzle(puzzle);
+        }
+      }
+    }
+    return;
+  }
+
+  /**
+   * The file a puzzle is written to by writeFiles
+   * 
+   * @param directory The directory being written into
+   * @param seed      The seed of the puzzle
+   * 
+   * @return puzzle-ROWSxCOLUMNS-SEED.mze in the directory
+   * 
+   * @since 5.0
+   */
+  public Path fileFor(Path directory, long seed) {
+    return directory.resolve("puzzle-" + rows + "x" + columns + "-" + seed
+        + ".mze");
+  }
+
+  /**
+   * Generate puzzles from the command line
+   * 
+   * @param args rows, columns, count, the output directory or .mzp pack, then
+   *             optionally the difficulty (default 0.5) and first seed
+   *             (default 1)
+   * 
+   * @throws IOException If the output cannot be written
+   * 
+   * @since 5.0
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 4) {
+      System.out.println("Usage: java PuzzleGenerator <rows> <columns> "
+          + "<count> <out directory | out.mzp> [difficulty] [seed]\n"
+          + "  difficulty  0 - 1 (default 0.5), the chance an edge's walls are"
+          + " shared by both\n"
+          + "              tiles: 0 gives bare sides that fit anywhere, 1"
+          + " interlocking tiles");
+      System.exit(1);
+      return;
+    }
+    int rows = Integer.parseInt(args[0]);
+    int columns = Integer.parseInt(args[1]);
+    int count = Integer.parseInt(args[2]);
+    Path out = Paths.get(args[3]);
+    double difficulty = args.length > 4 ? Double.parseDouble(args[4]) : 0.5;
+    long seed = args.length > 5 ? Long.parseLong(args[5]) : 1;
+
+    PuzzleGenerator generator = new PuzzleGenerator(rows, columns,
+        difficulty);
+    long start = System.nanoTime();
+    if (out.toString().endsWith(".mzp")) {
+      generator.writePack(out, seed, count, ForkJoinPool.commonPool());
+    } else {
+      generator.writeFiles(out, seed, count, ForkJoinPool.commonPool());
+    }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    System.out.printf("%d puzzles of %d x %d to %s, %.3f s (%.0f/s)%n", count,
+        rows, columns, out, seconds, count / seconds);
+    return;
+  }
+
+  /**
+   * One maze over the whole board, and the tiles it cuts into
+   * <p>
+   * Walls are kept one boolean per cell side. hWall[y * width + x] is the wall
+   * along grid line y above cell x, vWall[y * (width + 1) + x] is the wall
+   * along grid line x left of cell row y.
+   */
+  private class Maze {
+
+    // The walls still standing
+    private final boolean[] hWall = new boolean[(height + 1) * width];
+    private final boolean[] vWall = new boolean[height * (width + 1)];
+
+    // For walls on an edge between squares, true if the square below (or
+    // right of) the edge draws it, false if the square above (or left)
+    private final boolean[] hLower = new boolean[(height + 1) * width];
+    private final boolean[] vRight = new boolean[height * (width + 1)];
+
+    // Carve the maze and share out the edge walls
+    Maze(SplittableRandom random) {
+      Arrays.fill(hWall, true);
+      Arrays.fill(vWall, true);
+      carve(random);
+      hWall[random.nextInt(width)] = false;
+      hWall[(height * width) + random.nextInt(width)] = false;
+      shareEdges(random);
+    }
+
+    // Randomized depth first search over every cell, with an explicit stack
+    private void carve(SplittableRandom random) {
+      boolean[] visited = new boolean[height * width];
+      int[] stack = new int[height * width];
+      int[] next = new int[4];
+      int top = 0;
+      stack[top++] = random.nextInt(height * width);
+      visited[stack[0]] = true;
+      while (top > 0) {
+        int cell = stack[top - 1];
+        int y = cell / width;
+        int x = cell % width;
+        int options = 0;
+        if (y > 0 && !visited[cell - width]) {
+          next[options++] = cell - width;
+        }
+        if (x < width - 1 && !visited[cell + 1]) {
+          next[options++] = cell + 1;
+        }
+        if (y < height - 1 && !visited[cell + width]) {
+          next[options++] = cell + width;
+        }
+        if (x > 0 && !visited[cell - 1]) {
+          next[options++] = cell - 1;
+        }
+        if (options == 0) {
+          top--;
+          continue;
+        }
+        int to = next[random.nextInt(options)];
+        if (to == cell - width) {
+          hWall[cell] = false;
+        } else if (to == cell + width) {
+          hWall[to] = false;
+        } else if (to == cell - 1) {
+          vWall[(y * (width + 1)) + x] = false;
+        } else {
+          vWall[(y * (width + 1)) + x + 1] = false;
+        }
+        visited[to] = true;
+        stack[top++] = to;
+      }
+    }
+
+    // Pick which tile draws each wall on an edge between two squares
+    private void shareEdges(SplittableRandom random) {
+      for (int y = cellsPerSide; y < height; y += cellsPerSide) {
+        for (int x = 0; x < width; x += cellsPerSide) {
+          shareEdge(random, hLower, (y * width) + x, 1);
+        }
+      }
+      for (int x = cellsPerSide; x < width; x += cellsPerSide) {
+        for (int y = 0; y < height; y += cellsPerSide) {
+          shareEdge(random, vRight, (y * (width + 1)) + x, width + 1);
+        }
+      }
+    }
+
+    // Share out the cellsPerSide walls of one edge, step apart from first,
+    // between both tiles with a chance of difficulty
+    private void shareEdge(SplittableRandom random, boolean[] lower,
+        int first, int step) {
+      boolean together = random.nextDouble() >= difficulty;
+      boolean side = random.nextBoolean();
+      for (int i = 0; i < cellsPerSide; i++) {
+        lower[first + (i * step)] = together ? side : random.nextBoolean();
+      }
+    }
+
+    // The lines of the tile for one square, unrotated
+    int[] cut(int row, int column) {
+      int top = row * cellsPerSide;
+      int left = column * cellsPerSide;
+      int[] coords = new int[16];
+      int used = 0;
+      for (int y = top; y <= top + cellsPerSide; y++) {
+        int run = -1;
+        for (int x = left; x <= left + cellsPerSide; x++) {
+          boolean drawn = x < left + cellsPerSide && hWall[(y * width) + x]
+              && drawsH(y, top, x);
+          if (drawn && run < 0) {
+            run = x;
+          } else if (!drawn && run >= 0) {
+            coords = line(coords, used, run - left, y - top, x - left,
+                y - top);
+            used += 4;
+            run = -1;
+          }
+        }
+      }
+      for (int x = left; x <= left + cellsPerSide; x++) {
+        int run = -1;
+        for (int y = top; y <= top + cellsPerSide; y++) {
+          boolean drawn = y < top + cellsPerSide
+              && vWall[(y * (width + 1)) + x] && drawsV(x, left, y);
+          if (drawn && run < 0) {
+            run = y;
+          } else if (!drawn && run >= 0) {
+            coords = line(coords, used, x - left, run - top, x - left,
+                y - top);
+            used += 4;
+            run = -1;
+          }
+        }
+      }
+      return Arrays.copyOf(coords, used);
+    }
+
+    // Is the horizontal wall at (x, y) drawn by the tile whose top is top
+    private boolean drawsH(int y, int top, int x) {
+      if (y == 0 || y == height) {
+        return true;
+      }
+      if (y == top) {
+        return hLower[(y * width) + x];
+      }
+      if (y == top + cellsPerSide) {
+        return !hLower[(y * width) + x];
+      }
+      return true;
+    }
+
+    // Is the vertical wall at (x, y) drawn by the tile whose left is left
+    private boolean drawsV(int x, int left, int y) {
+      if (x == 0 || x == width) {
+        return true;
+      }
+      if (x == left) {
+        return vRight[(y * (width + 1)) + x];
+      }
+      if (x == left + cellsPerSide) {
+        return !vRight[(y * (width + 1)) + x];
+      }
+      return true;
+    }
+
+    // Add a line between two grid points of a tile, growing the array
+    private int[] line(int[] coords, int used, int x1, int y1, int x2,
+        int y2) {
+      int[] grown = used + 4 > coords.length
+          ? Arrays.copyOf(coords, coords.length * 2) : coords;
+      grown[used] = inset(x1);
+      grown[used + 1] = inset(y1);
+      grown[used + 2] = inset(x2);
+      grown[used + 3] = inset(y2);
+      return grown;
+    }
+
+    // Tile coordinate of a grid point, edges moved edgeInset inside
+    private int inset(int point) {
+      if (point == 0) {
+        return edgeInset;
+      }
+      if (point == cellsPerSide) {
+        return (cellsPerSide * cellSize) - edgeInset;
+      }
+      return point * cellSize;
+    }
+  }
+
+  /**
+   * Fork/Join task that makes a range of a batch of puzzles
+   * <p>
+   * Ranges are split in half until they hold at most puzzlesPerTask puzzles.
+   * Each task either stores its puzzles in its own slots of the shared array
+   * or writes them straight to their files.
+   */
+  private class GenerateTask extends RecursiveAction {
+
+    // Default serialVersion (required for extension of RecursiveAction)
+    private static final long serialVersionUID = 1L;
+
+    private final long firstSeed;
+    private final List<PieceData>[] puzzles;
+    private final Path directory;
+    private final int from;
+    private final int to;
+
+    GenerateTask(long firstSeed, List<PieceData>[] puzzles, Path directory,
+        int from, int to) {
+      this.firstSeed = firstSeed;
+      this.puzzles = puzzles;
+      this.directory = directory;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute() {
+      if (to - from <= puzzlesPerTask) {
+        for (int i = from; i < to; i++) {
+          List<PieceData> puzzle = generate(firstSeed + i);
+          if (puzzles != null) {
+            puzzles[i] = puzzle;
+          } else {
+            write(fileFor(directory, firstSeed + i), puzzle);
+          }
+        }
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new GenerateTask(firstSeed, puzzles, directory, from, mid),
+          new GenerateTask(firstSeed, puzzles, directory, mid, to));
+      return;
+    }
+
+    // Write a puzzle, passing failures up through the join
+    private void write(Path file, List<PieceData> puzzle) {
+      try {
+        MzeFileWriter.write(file, puzzle);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+}
\ No newline at end of file
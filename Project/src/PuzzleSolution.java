@@ -0,0 +1,129 @@
+
+/**
+ * A correct layout of a puzzle found by a PuzzleSolver.
+ * <p>
+ * For every square of the board the solution holds the tile that goes there
+ * and how many clockwise quarter turns it needs, squares left empty (when the
+ * board has more squares than there are tiles) hold -1. Tiles are numbered by
+ * their position in the PieceData list given to the solver, squares are
+ * numbered row-major. Solutions are immutable.
+ * 
+ * @see PuzzleSolver
+ * @see EdgeSignature
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class PuzzleSolution {
+
+  // Number of squares down and across the board
+  private final int rows;
+  private final int columns;
+
+  // The tile in each square (-1 if empty) and its quarter turns
+  private final int[] cellTile;
+  private final int[] cellTurns;
+
+  /**
+   * Class Constructor
+   * 
+   * @param rows      The number of squares down the board
+   * @param columns   The number of squares across the board
+   * @param cellTile  The tile in each square, -1 if empty (copied)
+   * @param cellTurns The quarter turns of the tile in each square (copied)
+   * 
+   * @since 5.0
+   */
+  public PuzzleSolution(int rows, int columns, int[] cellTile,
+      int[] cellTurns) {
+    this.rows = rows;
+    this.columns = columns;
+    this.cellTile = cellTile.clone();
+    this.cellTurns = cellTurns.clone();
+    return;
+  }
+
+  /**
+   * Getter for the number of squares down the board
+   * 
+   * @return rows
+   * 
+   * @since 5.0
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Getter for the number of squares across the board
+   * 
+   * @return columns
+   * 
+   * @since 5.0
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Get the tile that goes in a square
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @return The tile number, -1 if the square stays empty
+   * 
+   * @since 5.0
+   */
+  public int getTile(int cell) {
+    return cellTile[cell];
+  }
+
+  /**
+   * Get the quarter turns of the tile in a square
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @return The number of clockwise quarter turns (0 - 3)
+   * 
+   * @since 5.0
+   */
+  public int getTurns(int cell) {
+    return cellTurns[cell];
+  }
+
+  /**
+   * Get the rotation of the tile in a square, as PieceData stores it
+   * 
+   * @param cell The row-major index of the square
+   * 
+   * @return The rotation value (3 is unrotated)
+   * 
+   * @see PieceData#setRotation(int)
+   * 
+   * @since 5.0
+   */
+  public int getRotation(int cell) {
+    return (cellTurns[cell] + 3) & 3;
+  }
+
+  /**
+   * The layout as a grid of tile numbers and quarter turns
+   * 
+   * @return One line per row, each square as tile/turns or a dot if empty
+   * 
+   * @since 5.0
+   */
+  @Override
+  public String toString() {
+    StringBuilder text = new StringBuilder();
+    for (int cell = 0; cell < cellTile.length; cell++) {
+      if (cellTile[cell] < 0) {
+        text.append('.');
+      } else {
+        text.append(cellTile[cell]).append('/').append(cellTurns[cell]);
+      }
+      text.append((cell + 1) % columns == 0 ? '\n' : ' ');
+    }
+    return text.toString();
+  }
+}
\ No newline at end of file
@@ -0,0 +1,860 @@
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * Finds a layout for a set of tiles that keeps the rules of a maze.
+ * <p>
+ * The solver only has the tiles, not the maze they were cut from. Every tile
+ * is given an EdgeSignature at each of its 4 rotations, and a layout is
+ * correct when no two neighbouring tiles draw the same part of the edge
+ * between them and the outside of the board is walled apart from at most
+ * borderGaps open quarters, the entrance and the exit. The maze the tiles were
+ * cut from always keeps these rules, so a set of tiles with no solution
+ * cannot be a puzzle. Other layouts can keep them too, so the layout found is
+ * not always the maze the game checks for.
+ * <p>
+ * The search fills the squares around the outside of the board first, then
+ * the inside row by row, backtracking when a square has no tile that fits.
+ * Each candidate is checked against the border and the filled neighbours with
+ * one mask AND per side. To keep the search small:
+ * <ul>
+ * <li>Tiles that draw the same walls once turned are interchangeable, so they
+ * are grouped into classes and each class is tried once per square no matter
+ * how many tiles it holds</li>
+ * <li>Rotations of a tile that give the same signature as an earlier rotation
+ * are skipped</li>
+ * <li>After every placement the squares left on the border are compared with
+ * the tiles left that could wall them. A tile that walls a corner can also
+ * wall a side, so for each set of sides every square that needs walls on a
+ * turned copy of it counts against the same tiles. The branch is cut as soon
+ * as there are not enough, allowing for the open quarters and empty squares
+ * still to come</li>
+ * <li>A search that goes past a limit on placements is restarted with the
+ * classes tried in a different order and twice the limit. An early wrong
+ * choice can otherwise leave the last few squares without tiles for a very
+ * long time. A search that ends under its limit was complete, so a puzzle
+ * with no solution is still reported as one</li>
+ * </ul>
+ * If the board has more squares than there are tiles, squares may be left
+ * empty and an empty square puts no limits on its neighbours.
+ * <p>
+ * The search keeps its own stack instead of recursing, so boards with tens of
+ * thousands of squares do not overflow the thread's stack. A solver can be
+ * used by many threads, each search gets its own state. The restart orders
+ * come from a fixed seed, so solve gives the same solution every time.
+ * <p>
+ * Shuffling and rotating the tiles does not change whether a puzzle can be
+ * solved, so checking a set of tiles once covers every game made from it.
+ * <p>
+ * This can also be run on its own to check a puzzle:
+ * {@code java PuzzleSolver <file.mze> [rows columns]} prints a solution (or
+ * that there is none) and how long the search took.
+ * 
+ * @see EdgeSignature
+ * @see PuzzleSolution
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class PuzzleSolver {
+
+  // Marks a square left empty and a square not filled yet during a search
+  static final int empty = -1;
+  static final int unfilled = -2;
+
+  // Open quarters allowed on the outside of the board (entrance and exit)
+  static final int borderGaps = 2;
+
+  // Number of squares down and across the board, and in total
+  final int rows;
+  final int columns;
+  final int cells;
+
+  // Number of squares left empty in every solution
+  final int holes;
+
+  // Number of classes of identical tiles
+  final int numClasses;
+
+  // Signature of each class at each rotation (index class * 4 + turns)
+  final long[] classSignature;
+
+  // The quarters along each side of each class at each rotation
+  // (EdgeSignature.edges, index class * 4 + turns)
+  final int[] classEdges;
+
+  // The rotations worth trying for each class (one bit per turns value)
+  final int[] classTurns;
+
+  // The border classes each class can wall (one bit per border class)
+  final int[] classFits;
+
+  // The tile numbers in each class, and the class of each tile
+  final int[][] classTiles;
+  final int[] tileClass;
+
+  // The turns at which each tile is its class unturned
+  final int[] tileOffset;
+
+  // The sides of each square on the outside of the board (its border class)
+  final int[] cellBorder;
+
+  // Number of squares in each border class
+  final int[] borderCells = new int[16];
+
+  // For each border class, the border classes (one bit each) whose squares
+  // need a tile that can wall it, those with walls on a turned copy of it
+  final int[] borderNeeds = new int[16];
+
+  // The square on each side of each square (index square * 4 + side), -1
+  // off the board
+  final int[] neighbours;
+
+  // The order the squares are filled in
+  final int[] order;
+
+  // Placements per square allowed before the first restart
+  static final int restartNodes = 4;
+
+  // Seed for the class orders of the restarts, so solve is repeatable
+  static final long restartSeed = 3011;
+
+  // Placements a search makes between takes from a shared budget
+  static final int budgetChunk = 1024;
+
+  /**
+   * Class Constructor
+   * <p>
+   * Works out the signatures of the tiles and groups identical tiles. The
+   * order and rotation the tiles are in now do not matter.
+   * 
+   * @param pieceData The tiles of the puzzle
+   * @param rows      The number of squares down the board
+   * @param columns   The number of squares across the board
+   * 
+   * @throws IllegalArgumentException If the board has fewer squares than
+   *                                  there are tiles
+   * 
+   * @since 5.0
+   */
+  public PuzzleSolver(List<PieceData> pieceData, int rows, int columns) {
+    if (rows < 1 || columns < 1
+        || (long) rows * columns < pieceData.size()) {
+      throw new IllegalArgumentException("A " + rows + "x" + columns
+          + " board cannot hold " + pieceData.size() + " tiles");
+    }
+    this.rows = rows;
+    this.columns = columns;
+    cells = rows * columns;
+    holes = cells - pieceData.size();
+
+    tileOffset = new int[pieceData.size()];
+    Map<List<Long>, Integer> classes = new HashMap<List<Long>, Integer>();
+    List<long[]> signatures = new ArrayList<long[]>();
+    List<List<Integer>> members = new ArrayList<List<Integer>>();
+    for (int tile = 0; tile < pieceData.size(); tile++) {
+      long[] turned = new long[4];
+      for (int turns = 0; turns < 4; turns++) {
+        turned[turns] = EdgeSignature.of(pieceData.get(tile), turns);
+      }
+      tileOffset[tile] = firstTurns(turned);
+      long[] signature = new long[4];
+      List<Long> key = new ArrayList<Long>(4);
+      for (int turns = 0; turns < 4; turns++) {
+        signature[turns] = turned[(turns + tileOffset[tile]) & 3];
+        key.add(signature[turns]);
+      }
+      Integer id = classes.get(key);
+      if (id == null) {
+        id = signatures.size();
+        classes.put(key, id);
+        signatures.add(signature);
+        members.add(new ArrayList<Integer>());
+      }
+      members.get(id).add(tile);
+    }
+
+    numClasses = signatures.size();
+    classSignature = new long[numClasses * 4];
+    classEdges = new int[numClasses * 4];
+    classTurns = new int[numClasses];
+    classFits = new int[numClasses];
+    classTiles = new int[numClasses][];
+    tileClass = new int[pieceData.size()];
+    for (int c = 0; c < numClasses; c++) {
+      long[] signature = signatures.get(c);
+      for (int turns = 0; turns < 4; turns++) {
+        classSignature[(c * 4) + turns] = signature[turns];
+        classEdges[(c * 4) + turns] = EdgeSignature.edges(signature[turns]);
+        boolean repeat = false;
+        for (int earlier = 0; earlier < turns; earlier++) {
+          repeat |= signature[earlier] == signature[turns];
+        }
+        if (!repeat) {
+          classTurns[c] |= 1 << turns;
+        }
+        for (int border = 0; border < 16; border++) {
+          if (EdgeSignature.gaps(signature[turns], border) == 0) {
+            classFits[c] |= 1 << border;
+          }
+        }
+      }
+      List<Integer> tiles = members.get(c);
+      classTiles[c] = new int[tiles.size()];
+      for (int i = 0; i < tiles.size(); i++) {
+        classTiles[c][i] = tiles.get(i);
+        tileClass[tiles.get(i)] = c;
+      }
+    }
+
+    for (int border = 1; border < 16; border++) {
+      for (int turns = 0; turns < 4; turns++) {
+        int turned = ((border << turns) | (border >>> (4 - turns))) & 0xF;
+        for (int other = 1; other < 16; other++) {
+          if ((other & turned) == turned) {
+            borderNeeds[border] |= 1 << other;
+          }
+        }
+      }
+    }
+
+    cellBorder = new int[cells];
+    neighbours = new int[cells * 4];
+    for (int cell = 0; cell < cells; cell++) {
+      int row = cell / columns;
+      int column = cell % columns;
+      int border = 0;
+      border |= row == 0 ? 1 << EdgeSignature.top : 0;
+      border |= column == columns - 1 ? 1 << EdgeSignature.right : 0;
+      border |= row == rows - 1 ? 1 << EdgeSignature.bottom : 0;
+      border |= column == 0 ? 1 << EdgeSignature.left : 0;
+      cellBorder[cell] = border;
+      borderCells[border]++;
+      neighbours[(cell * 4) + EdgeSignature.top] = row > 0 ? cell - columns
+          : -1;
+      neighbours[(cell * 4) + EdgeSignature.right] = column < columns - 1
+          ? cell + 1 : -1;
+      neighbours[(cell * 4) + EdgeSignature.bottom] = row < rows - 1
+          ? cell + columns : -1;
+      neighbours[(cell * 4) + EdgeSignature.left] = column > 0 ? cell - 1 : -1;
+    }
+
+    order = new int[cells];
+    boolean[] ordered = new boolean[cells];
+    int count = 0;
+    int[] ring = new int[(2 * (rows + columns)) + 4];
+    int ringLength = 0;
+    for (int column = 0; column < columns; column++) {
+      ring[ringLength++] = column;
+    }
+    for (int row = 1; row < rows; row++) {
+      ring[ringLength++] = (row * columns) + columns - 1;
+    }
+    for (int column = columns - 2; column >= 0; column--) {
+      ring[ringLength++] = ((rows - 1) * columns) + column;
+    }
+    for (int row = rows - 2; row > 0; row--) {
+      ring[ringLength++] = row * columns;
+    }
+    for (int i = 0; i < ringLength; i++) {
+      if (!ordered[ring[i]]) {
+        ordered[ring[i]] = true;
+        order[count++] = ring[i];
+      }
+    }
+    for (int cell = 0; cell < cells; cell++) {
+      if (!ordered[cell]) {
+        ordered[cell] = true;
+        order[count++] = cell;
+      }
+    }
+    return;
+  }
+
+  /**
+   * Getter for the number of squares down the board
+   * 
+   * @return rows
+   * 
+   * @since 5.0
+   */
+  public int getRows() {
+    return rows;
+  }
+
+  /**
+   * Getter for the number of squares across the board
+   * 
+   * @return columns
+   * 
+   * @since 5.0
+   */
+  public int getColumns() {
+    return columns;
+  }
+
+  /**
+   * Find a correct layout
+   * 
+   * @return The first solution found, null if the puzzle cannot be solved
+   * 
+   * @since 5.0
+   */
+  public PuzzleSolution solve() {
+    PuzzleSolution[] found = new PuzzleSolution[1];
+    Random random = new Random(restartSeed);
+    long limit = (long) cells * restartNodes;
+    for (int attempt = 0;; attempt++) {
+      Search search = new Search(this,
+          classOrder(attempt == 0 ? null : random));
+      search.nodeLimit = limit;
+      search.run(solution -> {
+        found[0] = solution;
+        return false;
+      });
+      if (!search.limitReached) {
+        return found[0];
+      }
+      limit = limit > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : limit * 2;
+    }
+  }
+
+  /**
+   * Checks if the puzzle has a correct layout
+   * 
+   * @return True if a solution exists
+   * 
+   * @since 5.0
+   */
+  public boolean isSolvable() {
+    return solve() != null;
+  }
+
+  /**
+   * Checks a layout against the rules, independently of the search
+   * 
+   * @param solution A layout of this puzzle's tiles
+   * 
+   * @return True if every tile is placed once, no edge between two tiles has
+   *         a quarter drawn by both and the outside of the board has at most
+   *         borderGaps open quarters
+   * 
+   * @since 5.0
+   */
+  public boolean check(PuzzleSolution solution) {
+    if (solution.getRows() != rows || solution.getColumns() != columns) {
+      return false;
+    }
+    boolean[] placed = new boolean[tileClass.length];
+    long[] signature = new long[cells];
+    int gaps = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      int tile = solution.getTile(cell);
+      if (tile >= 0) {
+        if (tile >= placed.length || placed[tile]) {
+          return false;
+        }
+        placed[tile] = true;
+        signature[cell] = signature(tile, solution.getTurns(cell));
+        gaps += EdgeSignature.gaps(signature[cell], cellBorder[cell]);
+      }
+    }
+    for (int cell = 0; cell < cells; cell++) {
+      if (solution.getTile(cell) < 0) {
+        continue;
+      }
+      for (int side = EdgeSignature.right; side <= EdgeSignature.bottom;
+          side++) {
+        int next = neighbours[(cell * 4) + side];
+        if (next >= 0 && solution.getTile(next) >= 0
+            && !EdgeSignature.fits(signature[cell], side, signature[next])) {
+          return false;
+        }
+      }
+    }
+    return countPlaced(placed) == placed.length && gaps <= borderGaps;
+  }
+
+  /**
+   * Get the signature of a tile
+   * 
+   * @param tile  The tile number
+   * @param turns The quarter turns of the tile
+   * 
+   * @return The EdgeSignature of the tile at those turns
+   * 
+   * @since 5.0
+   */
+  long signature(int tile, int turns) {
+    return classSignature[(tileClass[tile] * 4)
+        + ((turns - tileOffset[tile]) & 3)];
+  }
+
+  /**
+   * Turn the rotation of a class into the rotation of one of its tiles
+   * 
+   * @param tile  A tile of the class
+   * @param turns The quarter turns of the class
+   * 
+   * @return The quarter turns of the tile that draw the same walls
+   * 
+   * @since 5.0
+   */
+  int tileTurns(int tile, int turns) {
+    return (turns + tileOffset[tile]) & 3;
+  }
+
+  /**
+   * The order a search tries the classes in
+   * 
+   * @param random Shuffles the classes, null for their natural order
+   * 
+   * @return Every class number once
+   * 
+   * @since 5.0
+   */
+  int[] classOrder(Random random) {
+    int[] classOrder = new int[numClasses];
+    for (int c = 0; c < classOrder.length; c++) {
+      classOrder[c] = c;
+    }
+    for (int c = classOrder.length - 1; random != null && c > 0; c--) {
+      int other = random.nextInt(c + 1);
+      int tmp = classOrder[other];
+      classOrder[other] = classOrder[c];
+      classOrder[c] = tmp;
+    }
+    return classOrder;
+  }
+
+  /**
+   * Count the tiles a layout places
+   * 
+   * @param placed True for each tile that is on the board
+   * 
+   * @return The number of tiles placed
+   * 
+   * @since 5.0
+   */
+  private static int countPlaced(boolean[] placed) {
+    int count = 0;
+    for (boolean tile : placed) {
+      count += tile ? 1 : 0;
+    }
+    return count;
+  }
+
+  /**
+   * Pick the rotation a tile's class starts from
+   * <p>
+   * Taking the rotation whose signatures come first in order gives every
+   * turned copy of a tile the same class.
+   * 
+   * @param turned The signature of a tile at each number of turns
+   * 
+   * @return The turns the class starts from
+   * 
+   * @since 5.0
+   */
+  private static int firstTurns(long[] turned) {
+    int first = 0;
+    for (int start = 1; start < 4; start++) {
+      for (int i = 0; i < 4; i++) {
+        long a = turned[(start + i) & 3];
+        long b = turned[(first + i) & 3];
+        if (a != b) {
+          if (a < b) {
+            first = start;
+          }
+          break;
+        }
+      }
+    }
+    return first;
+  }
+
+  /**
+   * Solve a .mze file from the command line
+   * 
+   * @param args The file to solve (defaults to input/default.mze), optionally
+   *             followed by the number of rows and columns
+   * 
+   * @throws IOException If the file cannot be read
+   * 
+   * @since 5.0
+   */
+  public static void main(String[] args) throws IOException {
+    String file = args.length > 0 ? args[0] : "input/default.mze";
+    List<PieceData> pieceData = MappedMzeFile.open(Paths.get(file));
+    int rows = GameController.rowsFor(pieceData.size());
+    int columns = GameController.columnsFor(pieceData.size());
+    if (args.length > 2) {
+      rows = Integer.parseInt(args[1]);
+      columns = Integer.parseInt(args[2]);
+    }
+    long start = System.nanoTime();
+    PuzzleSolver solver = new PuzzleSolver(pieceData, rows, columns);
+    PuzzleSolution solution = solver.solve();
+    long elapsed = System.nanoTime() - start;
+    System.out.print(solution == null ? "No solution\n" : solution);
+    if (solution != null && !solver.check(solution)) {
+      System.out.println("Solution failed its check");
+      System.exit(2);
+    }
+    System.out.printf("%d tiles on %dx%d, %.3f ms%n", pieceData.size(), rows,
+        columns, elapsed / 1e6);
+    if (solution == null) {
+      System.exit(1);
+    }
+    return;
+  }
+
+  /**
+   * The state of one depth first search
+   * <p>
+   * Squares are filled in the solver's order. For each square the search
+   * keeps a cursor of the next class and rotation to try (position in the
+   * class order * 4 + turns), then one more value for leaving the square
+   * empty. Every placement updates the counts used for pruning and is undone
+   * exactly when the search backs up.
+   */
+  static class Search {
+
+    // The puzzle being solved
+    final PuzzleSolver solver;
+
+    // The order the squares are filled in
+    final int[] order;
+
+    // The order the classes are tried in at every square (not copied, so
+    // searches can share it)
+    final int[] classOrder;
+
+    // Tiles of each class not placed yet
+    final int[] classLeft;
+
+    // Tiles not placed yet that could wall each border class
+    final int[] fitLeft = new int[16];
+
+    // Squares not filled yet in each border class
+    final int[] cellsLeft;
+
+    // Squares that can still be left empty, and open quarters that can still
+    // be left on the outside of the board
+    int holesLeft;
+    int gapsLeft = borderGaps;
+
+    // The class (empty or unfilled if no tile), turns, edges and open border
+    // quarters in each square
+    final int[] cellClass;
+    final int[] cellTurns;
+    final int[] cellEdges;
+    final int[] cellGaps;
+
+    // Next option to try for each square
+    final int[] cursor;
+
+    // Number of placements tried
+    long nodes = 0;
+
+    // Number of placements after which run gives up, and if it did
+    long nodeLimit = Long.MAX_VALUE;
+    boolean limitReached = false;
+
+    // Set by another thread to stop run, null if the search cannot be stopped
+    AtomicBoolean stopped = null;
+
+    // Placements left for all the searches sharing it, null if there is no
+    // shared limit, and the placements already taken from it
+    AtomicLong sharedBudget = null;
+    long charged = 0;
+
+    // A search trying the classes in their natural order
+    Search(PuzzleSolver solver) {
+      this(solver, solver.classOrder(null));
+    }
+
+    // A search trying the classes in the given order
+    Search(PuzzleSolver solver, int[] classOrder) {
+      this.solver = solver;
+      this.order = solver.order;
+      this.classOrder = classOrder;
+      classLeft = new int[solver.numClasses];
+      for (int c = 0; c < solver.numClasses; c++) {
+        classLeft[c] = solver.classTiles[c].length;
+        for (int border = 0; border < 16; border++) {
+          if ((solver.classFits[c] & (1 << border)) != 0) {
+            fitLeft[border] += classLeft[c];
+          }
+        }
+      }
+      cellsLeft = solver.borderCells.clone();
+      holesLeft = solver.holes;
+      cellClass = new int[solver.cells];
+      Arrays.fill(cellClass, unfilled);
+      cellTurns = new int[solver.cells];
+      cellEdges = new int[solver.cells];
+      cellGaps = new int[solver.cells];
+      cursor = new int[solver.cells + 1];
+    }
+
+    /**
+     * Search every square from the first one in the order
+     * 
+     * @param onSolution Called with each solution, returns true to keep
+     *                   searching for more
+     * 
+     * @return False if onSolution stopped the search
+     */
+    boolean run(Predicate<PuzzleSolution> onSolution) {
+      return run(0, onSolution);
+    }
+
+    /**
+     * Search the squares from a given position in the order on, keeping the
+     * squares before it as they are
+     * <p>
+     * If the node limit or the shared budget is reached the search stops with
+     * limitReached set and the squares from the given position on are left
+     * filled. The same happens, without limitReached, if stopped is set.
+     * 
+     * @param from       The position in the order of the first square to fill
+     * @param onSolution Called with each solution, returns true to keep
+     *                   searching for more
+     * 
+     * @return False if onSolution or stopped ended the search or the node
+     *         limit was reached
+     */
+    boolean run(int from, Predicate<PuzzleSolution> onSolution) {
+      int depth = from;
+      cursor[depth] = 0;
+      while (depth >= from) {
+        if (nodes >= nodeLimit) {
+          limitReached = true;
+          return false;
+        }
+        if (stopped != null && stopped.get()) {
+          return false;
+        }
+        if (sharedBudget != null && nodes - charged >= budgetChunk) {
+          long left = sharedBudget.addAndGet(charged - nodes);
+          charged = nodes;
+          if (left < 0) {
+            limitReached = true;
+            return false;
+          }
+        }
+        if (depth == solver.cells) {
+          if (!onSolution.test(toSolution())) {
+            return false;
+          }
+          depth--;
+          if (depth >= from) {
+            undo(order[depth]);
+          }
+        } else if (advance(depth)) {
+          depth++;
+          cursor[depth] = 0;
+        } else {
+          depth--;
+          if (depth >= from) {
+            undo(order[depth]);
+          }
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Place the next option that fits in a square
+     * 
+     * @param depth The position in the order of the square to fill
+     * 
+     * @return True if something was placed, false if every option was tried
+     */
+    boolean advance(int depth) {
+      int cell = order[depth];
+      int end = solver.numClasses * 4;
+      int c = cursor[depth];
+      while (c < end) {
+        int cls = classOrder[c >> 2];
+        if (classLeft[cls] == 0) {
+          c = ((c >> 2) + 1) << 2;
+          continue;
+        }
+        int turns = c & 3;
+        c++;
+        if ((solver.classTurns[cls] & (1 << turns)) != 0
+            && fits(cell, solver.classEdges[(cls * 4) + turns])) {
+          cursor[depth] = c;
+          place(cell, cls, turns);
+          if (feasible()) {
+            return true;
+          }
+          undo(cell);
+        }
+      }
+      if (c == end && holesLeft > 0) {
+        cursor[depth] = end + 1;
+        place(cell, empty, 0);
+        if (feasible()) {
+          return true;
+        }
+        undo(cell);
+      }
+      cursor[depth] = end + 1;
+      return false;
+    }
+
+    /**
+     * Checks the edges of a tile against the border and the filled
+     * neighbours
+     * 
+     * @param cell  The square
+     * @param edges The quarters along each side of the tile at the rotation
+     *              being tried
+     * 
+     * @return True if the tile can go in the square
+     */
+    boolean fits(int cell, int edges) {
+      if (gaps(cell, edges) > gapsLeft) {
+        return false;
+      }
+      for (int side = EdgeSignature.top; side <= EdgeSignature.left; side++) {
+        int next = solver.neighbours[(cell * 4) + side];
+        if (next >= 0 && cellClass[next] >= 0
+            && ((edges >>> (side * 4))
+                & (cellEdges[next] >>> (EdgeSignature.opposite(side) * 4))
+                & 0xF) != 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Count the open quarters a tile would leave on the outside of the board
+     * 
+     * @param cell  The square
+     * @param edges The quarters along each side of the tile
+     * 
+     * @return The number of quarters on the square's border sides with no
+     *         wall
+     */
+    int gaps(int cell, int edges) {
+      int border = solver.cellBorder[cell];
+      int gaps = 0;
+      for (int side = EdgeSignature.top; side <= EdgeSignature.left; side++) {
+        if ((border & (1 << side)) != 0) {
+          gaps += 4 - Integer.bitCount((edges >>> (side * 4)) & 0xF);
+        }
+      }
+      return gaps;
+    }
+
+    /**
+     * Fill a square and update the counts
+     * 
+     * @param cell  The square
+     * @param cls   The class of the tile, empty to leave the square empty
+     * @param turns The rotation of the tile
+     */
+    void place(int cell, int cls, int turns) {
+      nodes++;
+      cellClass[cell] = cls;
+      cellsLeft[solver.cellBorder[cell]]--;
+      if (cls < 0) {
+        holesLeft--;
+        return;
+      }
+      cellTurns[cell] = turns;
+      cellEdges[cell] = solver.classEdges[(cls * 4) + turns];
+      cellGaps[cell] = gaps(cell, cellEdges[cell]);
+      gapsLeft -= cellGaps[cell];
+      classLeft[cls]--;
+      int fits = solver.classFits[cls];
+      for (int border = 0; border < 16; border++) {
+        if ((fits & (1 << border)) != 0) {
+          fitLeft[border]--;
+        }
+      }
+    }
+
+    /**
+     * Empty a square filled by place and put the counts back
+     * 
+     * @param cell The square
+     */
+    void undo(int cell) {
+      int cls = cellClass[cell];
+      cellClass[cell] = unfilled;
+      cellsLeft[solver.cellBorder[cell]]++;
+      if (cls < 0) {
+        holesLeft++;
+        return;
+      }
+      gapsLeft += cellGaps[cell];
+      classLeft[cls]++;
+      int fits = solver.classFits[cls];
+      for (int border = 0; border < 16; border++) {
+        if ((fits & (1 << border)) != 0) {
+          fitLeft[border]++;
+        }
+      }
+    }
+
+    /**
+     * Checks that there are enough tiles left for every part of the border
+     * 
+     * @return False if some border class has more squares left to fill than
+     *         tiles that could wall them, allowing for empty squares and open
+     *         quarters
+     */
+    boolean feasible() {
+      for (int border = 1; border < 16; border++) {
+        int needed = -holesLeft - gapsLeft;
+        int needs = solver.borderNeeds[border];
+        for (int other = 1; other < 16; other++) {
+          if ((needs & (1 << other)) != 0) {
+            needed += cellsLeft[other];
+          }
+        }
+        if (needed > fitLeft[border]) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    /**
+     * Turn the filled squares into a solution
+     * <p>
+     * Each class is handed out to its tiles in order, any tile of a class can
+     * go wherever the class was placed, turned to draw the same walls.
+     * 
+     * @return The solution for the current state
+     */
+    PuzzleSolution toSolution() {
+      int[] used = new int[solver.numClasses];
+      int[] tiles = new int[solver.cells];
+      int[] turns = new int[solver.cells];
+      for (int cell = 0; cell < solver.cells; cell++) {
+        int cls = cellClass[cell];
+        tiles[cell] = cls < 0 ? -1 : solver.classTiles[cls][used[cls]++];
+        turns[cell] = cls < 0 ? 0
+            : solver.tileTurns(tiles[cell], cellTurns[cell]);
+      }
+      return new PuzzleSolution(solver.rows, solver.columns, tiles, turns);
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,316 @@
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Reads and writes games in progress as compact binary .mzs save files.
+ * <p>
+ * A save holds a GameSnapshot, not the tiles themselves, so it is only
+ * resumed on top of the puzzle it was saved from (the puzzle code is checked
+ * by GameEngine.resume). The save format (all values big-endian):
+ * <ul>
+ * <li>Header (25 bytes): int magic "MZSV", int version, int rows, int
+ * columns, int tile count, int puzzle code, byte width of a place</li>
+ * <li>The tile in each slot at the start of the game, one place wide
+ * each</li>
+ * <li>The square or slot of each tile, one place wide each</li>
+ * <li>The starting rotations then the current rotations, 2 bits per tile
+ * packed 4 to a byte (each list starts on a new byte)</li>
+ * <li>int CRC32 of everything before it</li>
+ * </ul>
+ * A place is written in as few bytes (1 - 4) as the largest place on the
+ * board needs, so a 100x100 game saves in about 45KB. The whole file is
+ * written with one channel write from one buffer, and read with one read and
+ * decoded from memory, so even large games save and load in milliseconds.
+ * <p>
+ * A save is written to a temporary file next to it, forced to the disk, and
+ * then renamed over the old save in one step. A crash while saving leaves
+ * either the old save or the new one, never part of a save.
+ * <p>
+ * A save that is cut short, changed, or does not describe a real game fails
+ * with an IOException instead of loading a broken game.
+ * 
+ * @see GameSnapshot
+ * @see GameEngine#snapshot()
+ * @see GameEngine#resume(GameSnapshot)
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class SaveFile {
+
+  // "MZSV" identifies a save file
+  static final int saveMagic = 0x4D5A5356;
+
+  // Current version of the save format
+  static final int saveVersion = 1;
+
+  // magic + version + rows + columns + tile count + puzzle code + width
+  static final int headerSize = (6 * 4) + 1;
+
+  // The CRC32 at the end of the file
+  static final int checksumSize = 4;
+
+  // The extension of save files
+  private static final String saveExtension = ".mzs";
+
+  /**
+   * No instances, every method is static
+   */
+  private SaveFile() {
+  }
+
+  /**
+   * The save file that goes with a puzzle file
+   * <p>
+   * The save is next to the puzzle, with the same name ending in .mzs.
+   * 
+   * @param puzzle The .mze file of the puzzle
+   * 
+   * @return The path of its save
+   * 
+   * @since 5.0
+   */
+  public static Path pathFor(Path puzzle) {
+    String name = puzzle.getFileName().toString();
+    int dot = name.lastIndexOf('.');
+    return puzzle.resolveSibling(
+        (dot > 0 ? name.substring(0, dot) : name) + saveExtension);
+  }
+
+  /**
+   * Encode a game into save bytes
+   * 
+   * @param game The game to encode
+   * 
+   * @return A buffer holding the whole save, ready to be written
+   * 
+   * @since 5.0
+   */
+  public static ByteBuffer encode(GameSnapshot game) {
+    int numTiles = game.getTileCount();
+    int width = placeWidth(game.getRows() * game.getColumns() + numTiles);
+    int rotationBytes = (numTiles + 3) / 4;
+    ByteBuffer buffer = ByteBuffer.allocate(headerSize
+        + (2 * numTiles * width) + (2 * rotationBytes) + checksumSize);
+    buffer.putInt(saveMagic).putInt(saveVersion).putInt(game.getRows())
+        .putInt(game.getColumns()).putInt(numTiles)
+        .putInt(game.getPuzzleCode()).put((byte) width);
+    for (int slot = 0; slot < numTiles; slot++) {
+      putPlace(buffer, game.getInitialTileAtSlot(slot), width);
+    }
+    for (int tile = 0; tile < numTiles; tile++) {
+      putPlace(buffer, game.getPlace(tile), width);
+    }
+    for (int pass = 0; pass < 2; pass++) {
+      for (int first = 0; first < numTiles; first += 4) {
+        int packed = 0;
+        for (int tile = first; tile < Math.min(first + 4, numTiles); tile++) {
+          int rotation = pass == 0 ? game.getInitialRotation(tile)
+              : game.getRotation(tile);
+          packed |= rotation << (2 * (tile - first));
+        }
+        buffer.put((byte) packed);
+      }
+    }
+    CRC32 crc = new CRC32();
+    crc.update(buffer.array(), 0, buffer.position());
+    buffer.putInt((int) crc.getValue());
+    buffer.flip();
+    return buffer;
+  }
+
+  /**
+   * Decode save bytes into a game
+   * 
+   * @param buffer The whole save, from its position to its limit
+   * 
+   * @return The game that was saved
+   * 
+   * @throws IOException If the bytes are not a valid save
+   * 
+   * @since 5.0
+   */
+  public static GameSnapshot decode(ByteBuffer buffer) throws IOException {
+    int start = buffer.position();
+    int length = buffer.remaining();
+    if (length < headerSize + checksumSize) {
+      throw new IOException("Save is too short");
+    }
+    if (buffer.getInt() != saveMagic) {
+      throw new IOException("Not a .mzs save");
+    }
+    int version = buffer.getInt();
+    if (version != saveVersion) {
+      throw new IOException("Unsupported save version " + version);
+    }
+    int rows = buffer.getInt();
+    int columns = buffer.getInt();
+    int numTiles = buffer.getInt();
+    int puzzleCode = buffer.getInt();
+    int width = buffer.get();
+    int rotationBytes = (numTiles + 3) / 4;
+    if (numTiles < 0 || width < 1 || width > 4
+        || length != headerSize + (2L * numTiles * width)
+            + (2L * rotationBytes) + checksumSize) {
+      throw new IOException("Corrupt save header");
+    }
+    CRC32 crc = new CRC32();
+    ByteBuffer checked = buffer.duplicate();
+    checked.position(start).limit(start + length - checksumSize);
+    crc.update(checked);
+    if (buffer.getInt(start + length - checksumSize) != (int) crc
+        .getValue()) {
+      throw new IOException("Save checksum does not match");
+    }
+
+    int[] initialSlots = new int[numTiles];
+    int[] places = new int[numTiles];
+    byte[] initialRotations = new byte[numTiles];
+    byte[] rotations = new byte[numTiles];
+    for (int slot = 0; slot < numTiles; slot++) {
+      initialSlots[slot] = getPlace(buffer, width);
+    }
+    for (int tile = 0; tile < numTiles; tile++) {
+      places[tile] = getPlace(buffer, width);
+    }
+    for (int pass = 0; pass < 2; pass++) {
+      byte[] into = pass == 0 ? initialRotations : rotations;
+      for (int first = 0; first < numTiles; first += 4) {
+        int packed = buffer.get();
+        for (int tile = first; tile < Math.min(first + 4, numTiles); tile++) {
+          into[tile] = (byte) ((packed >> (2 * (tile - first))) & 3);
+        }
+      }
+    }
+    buffer.position(start + length);
+    try {
+      return new GameSnapshot(rows, columns, puzzleCode, initialSlots,
+          initialRotations, places, rotations);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Corrupt save: " + e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Write a game to a save file, replacing any existing file
+   * <p>
+   * The old save is only replaced once the new one is fully written. If the
+   * file system cannot rename atomically the save is still replaced by a
+   * rename, which most file systems also do in one step.
+   * 
+   * @param path The file to write
+   * @param game The game to save
+   * 
+   * @throws IOException If the file cannot be written
+   * 
+   * @since 5.0
+   */
+  public static void write(Path path, GameSnapshot game) throws IOException {
+    ByteBuffer buffer = encode(game);
+    Path temp = Files.createTempFile(path.toAbsolutePath().getParent(),
+        path.getFileName().toString(), ".tmp");
+    try {
+      try (FileChannel channel = FileChannel.open(temp,
+          StandardOpenOption.WRITE)) {
+        while (buffer.hasRemaining()) {
+          channel.write(buffer);
+        }
+        channel.force(false);
+      }
+      try {
+        Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE,
+            StandardCopyOption.REPLACE_EXISTING);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+      }
+    } finally {
+      Files.deleteIfExists(temp);
+    }
+    return;
+  }
+
+  /**
+   * Read a game from a save file
+   * 
+   * @param path The file to read
+   * 
+   * @return The game that was saved
+   * 
+   * @throws IOException If the file cannot be read or is not a valid save
+   * 
+   * @since 5.0
+   */
+  public static GameSnapshot read(Path path) throws IOException {
+    try (FileChannel channel = FileChannel.open(path,
+        StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException(path + " is too large to be a save");
+      }
+      ByteBuffer buffer = ByteBuffer.allocate((int) size);
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) < 0) {
+          throw new IOException(path + " was cut short while reading");
+        }
+      }
+      buffer.flip();
+      return decode(buffer);
+    }
+  }
+
+  /**
+   * The number of bytes needed to write every place below a limit
+   * 
+   * @param limit One more than the largest place
+   * 
+   * @return 1 - 4
+   * 
+   * @since 5.0
+   */
+  private static int placeWidth(int limit) {
+    int bits = 32 - Integer.numberOfLeadingZeros(Math.max(limit - 1, 1));
+    return (bits + 7) / 8;
+  }
+
+  /**
+   * Write a place in the given number of bytes
+   * 
+   * @param buffer The buffer to write into
+   * @param place  The place (or tile number) to write
+   * @param width  The number of bytes
+   * 
+   * @since 5.0
+   */
+  private static void putPlace(ByteBuffer buffer, int place, int width) {
+    for (int shift = 8 * (width - 1); shift >= 0; shift -= 8) {
+      buffer.put((byte) (place >>> shift));
+    }
+    return;
+  }
+
+  /**
+   * Read a place written by putPlace
+   * 
+   * @param buffer The buffer to read from
+   * @param width  The number of bytes
+   * 
+   * @return The place (or tile number)
+   * 
+   * @since 5.0
+   */
+  private static int getPlace(ByteBuffer buffer, int width) {
+    int place = 0;
+    for (int i = 0; i < width; i++) {
+      place = (place << 8) | (buffer.get() & 0xFF);
+    }
+    return place;
+  }
+}
\ No newline at end of file
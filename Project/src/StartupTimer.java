@@ -0,0 +1,107 @@
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Records how long each phase of starting the game takes.
+ * <p>
+ * Each phase is marked once, when it ends, with the time since the one before.
+ * The phases are, in order:
+ * <ul>
+ * <li>main: from the start of the JVM to the GUI starting to be built</li>
+ * <li>lookAndFeel: setting the Nimbus look and feel</li>
+ * <li>window: building the GameWindow</li>
+ * <li>shown: showing the window</li>
+ * <li>loadingPainted: first paint of the LoadingPanel</li>
+ * <li>tilesRead: reading the rest of the puzzle</li>
+ * <li>gameBuilt: building the GameController</li>
+ * <li>gamePainted: first paint of the game</li>
+ * </ul>
+ * The times are always recorded, which costs almost nothing, but are only
+ * printed when the game is run with -Dmaze.startupTimings=true. They are
+ * printed on one line once the game has been painted, so starts on kiosk
+ * machines can be logged and compared.
+ * <p>
+ * Every mark is made on the event dispatch thread.
+ * 
+ * @see Main
+ * @see GameWindow
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public final class StartupTimer {
+
+  // System property that turns on printing the timings
+  private static final String timingsProperty = "maze.startupTimings";
+
+  // Milliseconds taken by each phase marked so far, in order
+  private static final Map<String, Long> phases =
+      new LinkedHashMap<String, Long>();
+
+  // When the last phase was marked, from System.nanoTime
+  private static long lastMark = System.nanoTime();
+
+  // Set once the timings have been reported
+  private static boolean reported = false;
+
+  /**
+   * No instances, every method is static
+   */
+  private StartupTimer() {
+  }
+
+  /**
+   * Mark the end of a phase of starting up
+   * <p>
+   * A phase is only recorded the first time it is marked. The first phase
+   * marked is timed from the start of the JVM when the timings are printed.
+   * 
+   * @param phase The name of the phase that just ended
+   * 
+   * @since 5.0
+   */
+  public static void mark(String phase) {
+    long now = System.nanoTime();
+    if (reported || phases.containsKey(phase)) {
+      return;
+    }
+    if (phases.isEmpty() && Boolean.getBoolean(timingsProperty)) {
+      // Only load the management classes when the timings are printed
+      long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+      phases.put(phase, uptime);
+    } else {
+      phases.put(phase, (now - lastMark) / 1000000);
+    }
+    lastMark = now;
+    return;
+  }
+
+  /**
+   * Print the time of every phase, if the timings were asked for
+   * <p>
+   * Only the first call prints anything, phases marked after it are ignored.
+   * 
+   * @since 5.0
+   */
+  public static void report() {
+    if (reported) {
+      return;
+    }
+    reported = true;
+    if (!Boolean.getBoolean(timingsProperty)) {
+      return;
+    }
+    StringBuilder line = new StringBuilder("Startup:");
+    long total = 0;
+    for (Map.Entry<String, Long> phase : phases.entrySet()) {
+      line.append(' ').append(phase.getKey()).append('=')
+          .append(phase.getValue()).append("ms");
+      total += phase.getValue();
+    }
+    line.append(" total=").append(total).append("ms");
+    System.out.println(line);
+    return;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Iterator;
+
+/**
+ * Cache of rendered tile images.
+ * <p>
+ * Drawing a tile means filling its background and stroking every line of its
+ * maze segment. The lines of a tile only depend on the tile, its rotation and
+ * its background color (selected or not), so each combination is drawn once
+ * into an image and that image is copied to the screen on every repaint after
+ * that.
+ * <p>
+ * Images are created with the screen's GraphicsConfiguration when one is
+ * available, so they match the screen format and Java2D can keep them in video
+ * memory. The cache is bounded by the number of pixels it holds rather than
+ * the number of images, so a zoomed out board can keep many more of its small
+ * tiles than a board of full size tiles. Once the cache is over its budget the
+ * least recently used images are dropped.
+ * <p>
+ * The coordinates of a tile run from 0 to 100, they are scaled to the size of
+ * the image so a tile can be drawn at any zoom. The lines stay 2px wide.
+ * <p>
+ * A tile and rotation is identified by the coordinate array PieceData keeps
+ * for that rotation. Every clone of a PieceData shares those arrays, so all
+ * copies of a tile share the same images, while two different puzzles that
+ * happen to use the same tile numbers never do.
+ * 
+ * @see Piece
+ * @see PieceData
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class TileImageCache {
+
+  // 512 images of 100x100, enough for 256 tiles in both colors (about 20MB)
+  private static final long defaultCapacity = 512L * 100 * 100;
+
+  // Tile coordinates run from 0 to this value
+  private static final int tileSize = 100;
+
+  // Lines are drawn 2px wide in black, the same as Piece always has
+  private static final Stroke lineStroke = new BasicStroke(2);
+
+  // Cache shared by every Piece
+  private static final TileImageCache sharedCache = new TileImageCache(
+      defaultCapacity);
+
+  // Maximum number of pixels kept
+  private final long capacity;
+
+  // Number of pixels in the cached images
+  private long pixels = 0;
+
+  // Images in least to most recently used order
+  private final LinkedHashMap<Key, Image> images =
+      new LinkedHashMap<Key, Image>(16, 0.75f, true);
+
+  /**
+   * Class Constructor
+   * 
+   * @param capacity The maximum number of pixels to keep, summed over all
+   *                 cached images
+   * 
+   * @since 5.0
+   */
+  public TileImageCache(long capacity) {
+    this.capacity = capacity;
+    return;
+  }
+
+  /**
+   * Getter for the cache shared by every Piece
+   * 
+   * @return sharedCache
+   * 
+   * @since 5.0
+   */
+  public static TileImageCache getShared() {
+    return sharedCache;
+  }
+
+  /**
+   * Get the image of a tile, drawing it if it is not cached
+   * 
+   * @param data       The tile, drawn at its current rotation
+   * @param background The background color of the tile
+   * @param width      The width of the image in pixels
+   * @param height     The height of the image in pixels
+   * @param gc         The configuration of the screen the image is drawn to,
+   *                   may be null
+   * 
+   * @returns Image The rendered tile
+   * 
+   * @since 5.0
+   */
+  public synchronized Image getImage(PieceData data, Color background,
+      int width, int height, GraphicsConfiguration gc) {
+    Key key = new Key(data.getCoords(data.getTurns()), background.getRGB(),
+        width, height);
+    Image image = images.get(key);
+    if (image == null) {
+      image = render(key, gc);
+      images.put(key, image);
+      pixels += (long) width * height;
+      Iterator<Key> eldest = images.keySet().iterator();
+      while (pixels > capacity && images.size() > 1) {
+        Key dropped = eldest.next();
+        eldest.remove();
+        pixels -= (long) dropped.width * dropped.height;
+      }
+    }
+    return image;
+  }
+
+  /**
+   * Drop every cached image
+   * 
+   * @since 5.0
+   */
+  public synchronized void clear() {
+    images.clear();
+    pixels = 0;
+    return;
+  }
+
+  /**
+   * Getter for the number of cached images
+   * 
+   * @return The number of images currently held
+   * 
+   * @since 5.0
+   */
+  public synchronized int size() {
+    return images.size();
+  }
+
+  /**
+   * Draw a tile into a new image
+   * <p>
+   * This is the drawing Piece.paintComponent used to do on every repaint: fill
+   * the background, then draw every line in black with a 2px stroke. The
+   * coordinates are scaled from the 100x100 tile to the size of the image.
+   * 
+   * @param key The tile geometry, color and size to draw
+   * @param gc  The configuration of the screen, may be null
+   * 
+   * @returns Image The rendered tile
+   * 
+   * @since 5.0
+   */
+  private static Image render(Key key, GraphicsConfiguration gc) {
+    BufferedImage image = gc != null
+        ? gc.createCompatibleImage(key.width, key.height)
+        : new BufferedImage(key.width, key.height, BufferedImage.TYPE_INT_RGB);
+    Graphics2D graphics = image.createGraphics();
+    graphics.setColor(new Color(key.background));
+    graphics.fillRect(0, 0, key.width, key.height);
+    graphics.setColor(Color.black);
+    graphics.setStroke(lineStroke);
+    int[] coords = key.coords;
+    for (int i = 0; i < coords.length; i += 4) {
+      graphics.drawLine(coords[i] * key.width / tileSize,
+          coords[i + 1] * key.height / tileSize,
+          coords[i + 2] * key.width / tileSize,
+          coords[i + 3] * key.height / tileSize);
+    }
+    graphics.dispose();
+    return image;
+  }
+
+  /**
+   * Identifies one rendered image: the coordinate array of a tile rotation
+   * (compared by identity), the background color and the size.
+   */
+  private static class Key {
+    private final int[] coords;
+    private final int background;
+    private final int width;
+    private final int height;
+
+    Key(int[] coords, int background, int width, int height) {
+      this.coords = coords;
+      this.background = background;
+      this.width = width;
+      this.height = height;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Key)) {
+        return false;
+      }
+      Key k = (Key) o;
+      return coords == k.coords && background == k.background
+          && width == k.width && height == k.height;
+    }
+
+    @Override
+    public int hashCode() {
+      int hash = System.identityHashCode(coords);
+      hash = 31 * hash + background;
+      hash = 31 * hash + width;
+      return 31 * hash + height;
+    }
+  }
+}
\ No newline at end of file
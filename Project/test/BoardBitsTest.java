@@ -0,0 +1,125 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for BoardBits: the counters and bits stay in step with the squares
+ * through any order of changes.
+ * 
+ * @see BoardBits
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class BoardBitsTest {
+
+  @Test
+  public void refusesAMazeLargerThanTheBoard() {
+    assertThrows(IllegalArgumentException.class,
+        () -> new BoardBits(2, 2, new long[5]));
+  }
+
+  @Test
+  public void fillingTheMazeSolvesIt() {
+    long[] maze = { 1, 2, 3, 4, 5, 6 };
+    BoardBits bits = new BoardBits(2, 3, maze);
+    assertTrue(bits.isCorrect());
+    assertFalse(bits.isSolved());
+    for (int cell = 0; cell < maze.length; cell++) {
+      bits.set(cell, maze[cell]);
+      bits.set(cell, maze[cell]);
+    }
+    assertEquals(6, bits.countFilled());
+    assertTrue(bits.isSolved());
+
+    bits.set(2, 9);
+    assertFalse(bits.fits(2));
+    assertFalse(bits.isCorrect());
+    assertFalse(bits.isSolved());
+    bits.set(2, maze[2]);
+    assertTrue(bits.isSolved());
+
+    bits.clear(5);
+    bits.clear(5);
+    assertEquals(5, bits.countFilled());
+    assertTrue(bits.isCorrect());
+    assertFalse(bits.isSolved());
+
+    bits.clearAll();
+    assertEquals(0, bits.countFilled());
+    assertFalse(bits.isOccupied(0));
+    assertFalse(bits.fits(0));
+  }
+
+  @Test
+  public void squaresAfterTheMazeMustBeEmpty() {
+    long[] maze = { 1, 2, 3 };
+    BoardBits bits = new BoardBits(2, 2, maze);
+    for (int cell = 0; cell < maze.length; cell++) {
+      bits.set(cell, maze[cell]);
+    }
+    assertTrue(bits.isSolved());
+    bits.set(3, 0);
+    assertFalse(bits.fits(3));
+    assertFalse(bits.isCorrect());
+    assertFalse(bits.isSolved());
+    bits.clear(3);
+    assertTrue(bits.isSolved());
+  }
+
+  @Test
+  public void randomChangesMatchASimpleModel() {
+    int rows = 9;
+    int columns = 15;
+    long[] maze = new long[130];
+    Random random = new Random(16);
+    for (int cell = 0; cell < maze.length; cell++) {
+      maze[cell] = random.nextInt(4);
+    }
+    BoardBits bits = new BoardBits(rows, columns, maze);
+    long[] board = new long[rows * columns];
+    boolean[] filled = new boolean[board.length];
+    for (int step = 0; step < 100000; step++) {
+      int cell = random.nextInt(board.length);
+      int action = random.nextInt(20);
+      if (step % 5000 == 4999) {
+        bits.clearAll();
+        Arrays.fill(filled, false);
+      } else if (action < 8) {
+        bits.clear(cell);
+        filled[cell] = false;
+      } else {
+        board[cell] = random.nextInt(4);
+        bits.set(cell, board[cell]);
+        filled[cell] = true;
+      }
+      assertModel(bits, maze, board, filled);
+    }
+  }
+
+  // Check every bit and counter against a plain array of the squares
+  private static void assertModel(BoardBits bits, long[] maze, long[] board,
+      boolean[] filled) {
+    int count = 0;
+    int drawn = 0;
+    for (int cell = 0; cell < board.length; cell++) {
+      boolean draws = filled[cell] && cell < maze.length
+          && board[cell] == maze[cell];
+      assertEquals(filled[cell], bits.isOccupied(cell));
+      assertEquals(draws, bits.fits(cell));
+      count += filled[cell] ? 1 : 0;
+      drawn += draws ? 1 : 0;
+    }
+    assertEquals(count, bits.countFilled());
+    assertEquals(drawn == count, bits.isCorrect());
+    assertEquals(drawn == maze.length && count == maze.length,
+        bits.isSolved());
+  }
+}
\ No newline at end of file
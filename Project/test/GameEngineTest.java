@@ -0,0 +1,171 @@
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for the moves, undo and redo of GameEngine.
+ * <p>
+ * The puzzle is generated, so tile i unturned is the one that draws square i
+ * of the maze.
+ * 
+ * @see GameEngine
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class GameEngineTest {
+
+  // The board the tests play on
+  private static final int rows = 3;
+  private static final int columns = 3;
+
+  // The game being played
+  private GameEngine engine;
+
+  @BeforeEach
+  public void newEngine() {
+    List<PieceData> tiles = new PuzzleGenerator(rows, columns, 0.5)
+        .generate(7);
+    engine = new GameEngine(tiles, rows, columns);
+  }
+
+  @Test
+  public void undoAndRedoWithNothingToDo() {
+    assertFalse(engine.undo());
+    assertFalse(engine.redo());
+    assertFalse(engine.getHistory().canUndo());
+  }
+
+  @Test
+  public void undoTakesBackEachMoveInTurn() {
+    int[] start = places();
+    assertTrue(engine.place(0, 4));
+    int[] placed = places();
+    engine.rotate(0);
+    int turned = engine.getRotation(0);
+    assertTrue(engine.place(0, 8));
+    assertTrue(engine.remove(0, 0));
+    assertEquals(4, engine.getHistory().getUndoCount());
+
+    assertTrue(engine.undo());
+    assertEquals(8, engine.getCell(0));
+    assertEquals(GameEngine.none, engine.getTileAtSlot(0));
+    assertTrue(engine.undo());
+    assertEquals(4, engine.getCell(0));
+    assertEquals(GameEngine.none, engine.getTileAtCell(8));
+    assertEquals(turned, engine.getRotation(0));
+    assertTrue(engine.undo());
+    assertArrayEquals(placed, places());
+    assertEquals((turned + 3) & 3, engine.getRotation(0));
+    assertTrue(engine.undo());
+    assertArrayEquals(start, places());
+    assertEquals(0, engine.getSlot(0));
+    assertFalse(engine.undo());
+    assertEquals(4, engine.getHistory().getRedoCount());
+  }
+
+  @Test
+  public void redoMakesTheMovesAgain() {
+    engine.place(0, 4);
+    engine.rotate(0);
+    engine.place(3, 5);
+    engine.remove(3, 3);
+    int[] end = places();
+    int[] endRotations = rotations();
+    while (engine.undo()) {
+    }
+    while (engine.redo()) {
+    }
+    assertArrayEquals(end, places());
+    assertArrayEquals(endRotations, rotations());
+    assertEquals(4, engine.getHistory().getUndoCount());
+    assertFalse(engine.getHistory().canRedo());
+  }
+
+  @Test
+  public void newMoveClearsRedo() {
+    engine.place(0, 4);
+    engine.place(1, 5);
+    engine.undo();
+    assertTrue(engine.getHistory().canRedo());
+    engine.rotate(2);
+    assertFalse(engine.getHistory().canRedo());
+    assertFalse(engine.redo());
+    assertEquals(GameEngine.none, engine.getCell(1));
+  }
+
+  @Test
+  public void refusedMovesAreNotRecorded() {
+    engine.place(0, 4);
+    assertFalse(engine.place(1, 4));
+    assertFalse(engine.place(1, rows * columns));
+    assertFalse(engine.remove(1, 1));
+    assertFalse(engine.remove(1, -1));
+    assertEquals(1, engine.getHistory().getUndoCount());
+    assertThrows(IllegalArgumentException.class,
+        () -> engine.rotate(rows * columns));
+  }
+
+  @Test
+  public void undoAndRedoFollowTheSolvedState() {
+    for (int tile = 0; tile < rows * columns; tile++) {
+      assertFalse(engine.isSolved());
+      assertTrue(engine.place(tile, tile));
+    }
+    assertTrue(engine.isSolved());
+    engine.undo();
+    assertFalse(engine.isSolved());
+    assertFalse(engine.isCorrectAt(rows * columns - 1));
+    engine.redo();
+    assertTrue(engine.isSolved());
+    for (int turn = 0; turn < 4; turn++) {
+      engine.rotate(4);
+    }
+    assertTrue(engine.isSolved());
+    for (int i = 0; i < 4; i++) {
+      engine.undo();
+    }
+    assertTrue(engine.isSolved());
+  }
+
+  @Test
+  public void resetGoesBackToTheStartingLayout() {
+    engine.newGame(new Random(3));
+    int[] start = places();
+    int[] startRotations = rotations();
+    engine.place(engine.getTileAtSlot(0), 0);
+    engine.rotate(2);
+    engine.reset();
+    assertArrayEquals(start, places());
+    assertArrayEquals(startRotations, rotations());
+  }
+
+  // Where every tile is, squares as their index and slots after them
+  private int[] places() {
+    int[] places = new int[engine.getTileCount()];
+    for (int tile = 0; tile < places.length; tile++) {
+      int cell = engine.getCell(tile);
+      places[tile] = cell != GameEngine.none ? cell
+          : engine.getCellCount() + engine.getSlot(tile);
+    }
+    return places;
+  }
+
+  // The rotation of every tile
+  private int[] rotations() {
+    int[] rotations = new int[engine.getTileCount()];
+    for (int tile = 0; tile < rotations.length; tile++) {
+      rotations[tile] = engine.getRotation(tile);
+    }
+    return rotations;
+  }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Tests for GameHistory: undo and redo sequences on the two stacks.
+ * 
+ * @see GameHistory
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class GameHistoryTest {
+
+  // Three moves of one tile: into square 0, a turn, back to slot 2
+  private final Move first = new Move(Move.place, 1, GameEngine.none, 1, 0);
+  private final Move second = new Move(Move.rotate, 1, 0, GameEngine.none,
+      GameEngine.none);
+  private final Move third = new Move(Move.remove, 1, 0, GameEngine.none, 2);
+
+  @Test
+  public void emptyHasNothingToUndoOrRedo() {
+    GameHistory history = GameHistory.empty;
+    assertFalse(history.canUndo());
+    assertFalse(history.canRedo());
+    assertNull(history.getUndoMove());
+    assertNull(history.getRedoMove());
+    assertEquals(0, history.getUndoCount());
+    assertEquals(0, history.getRedoCount());
+    assertThrows(IllegalStateException.class, history::undo);
+    assertThrows(IllegalStateException.class, history::redo);
+  }
+
+  @Test
+  public void undoAndRedoWalkTheMovesInOrder() {
+    GameHistory history = GameHistory.empty.push(first).push(second)
+        .push(third);
+    assertEquals(3, history.getUndoCount());
+    assertSame(third, history.getUndoMove());
+
+    history = history.undo();
+    assertSame(second, history.getUndoMove());
+    assertSame(third, history.getRedoMove());
+    history = history.undo().undo();
+    assertFalse(history.canUndo());
+    assertEquals(3, history.getRedoCount());
+    assertSame(first, history.getRedoMove());
+
+    history = history.redo();
+    assertSame(first, history.getUndoMove());
+    assertSame(second, history.getRedoMove());
+    history = history.redo().redo();
+    assertFalse(history.canRedo());
+    assertEquals(3, history.getUndoCount());
+    assertSame(third, history.getUndoMove());
+  }
+
+  @Test
+  public void newMoveDropsTheMovesUndone() {
+    GameHistory history = GameHistory.empty.push(first).push(second).undo();
+    assertTrue(history.canRedo());
+    history = history.push(third);
+    assertFalse(history.canRedo());
+    assertEquals(2, history.getUndoCount());
+    assertSame(third, history.getUndoMove());
+    assertSame(first, history.undo().getUndoMove());
+  }
+
+  @Test
+  public void olderHistoriesAreUnchanged() {
+    GameHistory one = GameHistory.empty.push(first);
+    GameHistory two = one.push(second);
+    GameHistory undone = two.undo();
+    assertEquals(1, one.getUndoCount());
+    assertFalse(one.canRedo());
+    assertEquals(2, two.getUndoCount());
+    assertSame(second, two.getUndoMove());
+    assertEquals(1, undone.getRedoCount());
+    assertFalse(GameHistory.empty.canUndo());
+  }
+
+  @Test
+  public void longHistoriesCountEveryMove() {
+    GameHistory history = GameHistory.empty;
+    for (int i = 0; i < 100000; i++) {
+      history = history.push(second);
+    }
+    for (int i = 0; i < 40000; i++) {
+      history = history.undo();
+    }
+    assertEquals(60000, history.getUndoCount());
+    assertEquals(40000, history.getRedoCount());
+  }
+}
\ No newline at end of file
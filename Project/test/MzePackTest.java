@@ -0,0 +1,208 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for MzePackWriter and MzePackReader: puzzles come back out of a pack
+ * as they went in, and damaged packs are refused with an IOException.
+ * 
+ * @see MzePackWriter
+ * @see MzePackReader
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class MzePackTest {
+
+  // Where the packs are written
+  @TempDir
+  Path directory;
+
+  @Test
+  public void everyPuzzleAndTileReadsBack() throws IOException {
+    List<List<PieceData>> puzzles = new ArrayList<List<PieceData>>();
+    for (int i = 0; i < 70; i++) {
+      int side = 1 + (i % 5);
+      puzzles.add(new PuzzleGenerator(side, side + 1, 0.5).generate(i));
+    }
+    Path pack = write("many.mzp", puzzles);
+    try (MzePackReader reader = new MzePackReader(pack)) {
+      assertEquals(puzzles.size(), reader.getPuzzleCount());
+      for (int i = puzzles.size() - 1; i >= 0; i--) {
+        List<PieceData> tiles = puzzles.get(i);
+        assertEquals(tiles.size(), reader.getTileCount(i));
+        assertTiles(tiles, reader.readPuzzle(i));
+        for (int tile = tiles.size() - 1; tile >= 0; tile--) {
+          assertTile(tiles.get(tile), reader.readTile(i, tile));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void emptyPackHasNoPuzzles() throws IOException {
+    Path pack = write("empty.mzp", new ArrayList<List<PieceData>>());
+    try (MzePackReader reader = new MzePackReader(pack)) {
+      assertEquals(0, reader.getPuzzleCount());
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> reader.readPuzzle(0));
+    }
+  }
+
+  @Test
+  public void outOfRangeIndexesAreRefused() throws IOException {
+    Path pack = write("small.mzp", smallPuzzles());
+    try (MzePackReader reader = new MzePackReader(pack)) {
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> reader.readPuzzle(-1));
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> reader.getTileCount(3));
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> reader.readTile(0, 4));
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> reader.readTile(0, -1));
+    }
+  }
+
+  @Test
+  public void refusesAnotherFile() throws IOException {
+    byte[] bytes = bytes(smallPuzzles());
+    bytes[0] = 'X';
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesAnotherVersion() throws IOException {
+    byte[] bytes = bytes(smallPuzzles());
+    bytes[7] = 99;
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesAPackCutShort() throws IOException {
+    byte[] good = bytes(smallPuzzles());
+    for (int length = 0; length < good.length; length++) {
+      assertCorrupt(Arrays.copyOf(good, length));
+    }
+  }
+
+  @Test
+  public void refusesABadHeader() throws IOException {
+    byte[] good = bytes(smallPuzzles());
+    byte[] bytes = good.clone();
+    ByteBuffer.wrap(bytes).putInt(8, -1);
+    assertCorrupt(bytes);
+    bytes = good.clone();
+    ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE);
+    assertCorrupt(bytes);
+    bytes = good.clone();
+    ByteBuffer.wrap(bytes).putLong(12, 4);
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesABadPuzzleIndex() throws IOException {
+    byte[] good = bytes(smallPuzzles());
+    long index = ByteBuffer.wrap(good).getLong(12);
+    long[] bad = { 0, index + 1, Long.MAX_VALUE, -8 };
+    for (long offset : bad) {
+      byte[] bytes = good.clone();
+      ByteBuffer.wrap(bytes).putLong((int) index + 8, offset);
+      assertCorrupt(bytes);
+    }
+  }
+
+  @Test
+  public void refusesABadTileCount() throws IOException {
+    byte[] good = bytes(smallPuzzles());
+    int record = MzePackWriter.headerSize;
+    for (int count : new int[] { -1, 5, 1000, Integer.MAX_VALUE }) {
+      byte[] bytes = good.clone();
+      ByteBuffer.wrap(bytes).putInt(record, count);
+      assertCorrupt(bytes);
+    }
+  }
+
+  @Test
+  public void refusesABadTileIndex() throws IOException {
+    byte[] good = bytes(smallPuzzles());
+    ByteBuffer buffer = ByteBuffer.wrap(good);
+    long index = buffer.getLong(12);
+    int recordEnd = (int) buffer.getLong((int) index + 8);
+    for (int offset : new int[] { 0, -1, 1 << 20 }) {
+      byte[] bytes = good.clone();
+      ByteBuffer.wrap(bytes).putInt(recordEnd - 8, offset);
+      assertCorrupt(bytes);
+    }
+  }
+
+  // Three 2x2 puzzles
+  private static List<List<PieceData>> smallPuzzles() {
+    List<List<PieceData>> puzzles = new ArrayList<List<PieceData>>();
+    for (int seed = 0; seed < 3; seed++) {
+      puzzles.add(new PuzzleGenerator(2, 2, 0.5).generate(seed));
+    }
+    return puzzles;
+  }
+
+  // Write a pack of the puzzles in the test directory
+  private Path write(String name, List<List<PieceData>> puzzles)
+      throws IOException {
+    Path pack = directory.resolve(name);
+    try (MzePackWriter writer = new MzePackWriter(pack)) {
+      for (int i = 0; i < puzzles.size(); i++) {
+        assertEquals(i, writer.addPuzzle(puzzles.get(i)));
+      }
+    }
+    return pack;
+  }
+
+  // The bytes of a pack of the puzzles
+  private byte[] bytes(List<List<PieceData>> puzzles) throws IOException {
+    return Files.readAllBytes(write("good.mzp", puzzles));
+  }
+
+  // Check that opening a pack or reading some part of it fails
+  private void assertCorrupt(byte[] bytes) throws IOException {
+    Path pack = Files.write(directory.resolve("bad.mzp"), bytes);
+    assertThrows(IOException.class, () -> {
+      try (MzePackReader reader = new MzePackReader(pack)) {
+        for (int puzzle = 0; puzzle < reader.getPuzzleCount(); puzzle++) {
+          reader.readPuzzle(puzzle);
+          for (int tile = 0; tile < reader.getTileCount(puzzle); tile++) {
+            reader.readTile(puzzle, tile);
+          }
+        }
+      }
+    });
+  }
+
+  private static void assertTiles(List<PieceData> expected,
+      List<PieceData> actual) {
+    assertEquals(expected.size(), actual.size());
+    for (int i = 0; i < expected.size(); i++) {
+      assertTile(expected.get(i), actual.get(i));
+    }
+  }
+
+  // The rotation is not stored, tiles are compared unturned
+  private static void assertTile(PieceData expected, PieceData actual) {
+    assertEquals(expected.getTileNum(), actual.getTileNum());
+    assertEquals(expected.getLineNum(), actual.getLineNum());
+    assertEquals(expected.getCoordCount(), actual.getCoordCount());
+    for (int i = 0; i < expected.getCoordCount(); i++) {
+      assertEquals(expected.getCoord(0, i), actual.getCoord(0, i));
+    }
+  }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests for ParallelPuzzleSolver: it solves what PuzzleSolver solves, on
+ * boards of every size, and solveAll stops when it is told to.
+ * 
+ * @see ParallelPuzzleSolver
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class ParallelPuzzleSolverTest {
+
+  // The pool the searches run on
+  private ForkJoinPool pool;
+
+  @BeforeEach
+  public void newPool() {
+    pool = new ForkJoinPool(4);
+  }
+
+  @AfterEach
+  public void closePool() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void solvesGeneratedPuzzles() {
+    for (double difficulty : new double[] { 0, 0.5, 1 }) {
+      for (int size = 1; size <= 6; size++) {
+        for (long seed = 0; seed < 3; seed++) {
+          List<PieceData> tiles = PuzzleSolverTest.mixed(
+              new PuzzleGenerator(size, size + 1, difficulty).generate(seed),
+              seed);
+          PuzzleSolver solver = new PuzzleSolver(tiles, size, size + 1);
+          PuzzleSolution solution =
+              new ParallelPuzzleSolver(solver, pool).solve();
+          assertNotNull(solution, size + "x" + (size + 1) + " seed " + seed);
+          assertTrue(solver.check(solution));
+        }
+      }
+    }
+  }
+
+  @Test
+  @Timeout(120)
+  public void solvesALargeBoard() {
+    List<PieceData> tiles = PuzzleSolverTest.mixed(
+        new PuzzleGenerator(100, 100, 0.5).generate(9), 9);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 100, 100);
+    PuzzleSolution solution = new ParallelPuzzleSolver(solver, pool).solve();
+    assertNotNull(solution);
+    assertTrue(solver.check(solution));
+  }
+
+  @Test
+  @Timeout(120)
+  public void solvesALongThinBoard() {
+    List<PieceData> tiles = PuzzleSolverTest.mixed(
+        new PuzzleGenerator(4, 2000, 0.5).generate(4), 4);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 4, 2000);
+    PuzzleSolution solution = new ParallelPuzzleSolver(solver, pool).solve();
+    assertNotNull(solution);
+    assertTrue(solver.check(solution));
+  }
+
+  @Test
+  public void solveAllGivesOnlyCorrectLayouts() {
+    List<PieceData> tiles = PuzzleSolverTest.mixed(
+        new PuzzleGenerator(3, 3, 0).generate(6), 6);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 3, 3);
+    AtomicInteger count = new AtomicInteger();
+    AtomicInteger wrong = new AtomicInteger();
+    assertTrue(new ParallelPuzzleSolver(solver, pool).solveAll(solution -> {
+      count.incrementAndGet();
+      if (!solver.check(solution)) {
+        wrong.incrementAndGet();
+      }
+      return true;
+    }));
+    assertTrue(count.get() > 0);
+    assertEquals(0, wrong.get());
+  }
+
+  @Test
+  public void solveAllStopsWhenTold() {
+    List<PieceData> tiles = PuzzleSolverTest.mixed(
+        new PuzzleGenerator(3, 3, 0).generate(6), 6);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 3, 3);
+    AtomicInteger count = new AtomicInteger();
+    assertFalse(new ParallelPuzzleSolver(solver, pool)
+        .solveAll(solution -> count.incrementAndGet() > 1000000));
+    assertTrue(count.get() >= 1);
+  }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+
+/**
+ * Tests for PuzzleSolver: generated puzzles are solved however their tiles
+ * are shuffled and turned, and check holds layouts to the edge rules.
+ * 
+ * @see PuzzleSolver
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class PuzzleSolverTest {
+
+  @Test
+  public void solvesGeneratedPuzzles() {
+    for (double difficulty : new double[] { 0, 0.5, 1 }) {
+      for (int size = 1; size <= 6; size++) {
+        for (long seed = 0; seed < 5; seed++) {
+          List<PieceData> tiles = mixed(
+              new PuzzleGenerator(size, size + 1, difficulty).generate(seed),
+              seed);
+          PuzzleSolver solver = new PuzzleSolver(tiles, size, size + 1);
+          PuzzleSolution solution = solver.solve();
+          assertNotNull(solution, size + "x" + (size + 1) + " seed " + seed);
+          assertTrue(solver.check(solution));
+        }
+      }
+    }
+  }
+
+  @Test
+  @Timeout(120)
+  public void solvesALargeBoardWithoutRecursing() {
+    List<PieceData> tiles = mixed(
+        new PuzzleGenerator(100, 100, 0.5).generate(9), 9);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 100, 100);
+    PuzzleSolution solution = solver.solve();
+    assertNotNull(solution);
+    assertTrue(solver.check(solution));
+  }
+
+  @Test
+  public void solveGivesTheSameSolutionEveryTime() {
+    List<PieceData> tiles = mixed(
+        new PuzzleGenerator(5, 6, 0.5).generate(3), 3);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 5, 6);
+    assertEquals(solver.solve().toString(), solver.solve().toString());
+  }
+
+  @Test
+  public void theMazeItselfPassesCheck() {
+    PuzzleSolver solver = new PuzzleSolver(
+        new PuzzleGenerator(4, 5, 0.5).generate(1), 4, 5);
+    assertTrue(solver.check(maze(4, 5)));
+  }
+
+  @Test
+  public void checkRefusesBrokenLayouts() {
+    int rows = 4;
+    int columns = 5;
+    int cells = rows * columns;
+    PuzzleSolver solver = new PuzzleSolver(
+        new PuzzleGenerator(rows, columns, 0.5).generate(1), rows, columns);
+    assertFalse(solver.check(new PuzzleSolution(columns, rows,
+        new int[cells], new int[cells])));
+
+    int[] cellTile = identity(cells);
+    cellTile[cells - 1] = 0;
+    assertFalse(solver.check(new PuzzleSolution(rows, columns, cellTile,
+        new int[cells])), "tile used twice");
+    cellTile[cells - 1] = -1;
+    assertFalse(solver.check(new PuzzleSolution(rows, columns, cellTile,
+        new int[cells])), "tile missing");
+    cellTile[cells - 1] = cells;
+    assertFalse(solver.check(new PuzzleSolution(rows, columns, cellTile,
+        new int[cells])), "no such tile");
+
+    int refused = 0;
+    for (int cell = 0; cell < cells; cell++) {
+      for (int turns = 1; turns < 4; turns++) {
+        int[] cellTurns = new int[cells];
+        cellTurns[cell] = turns;
+        if (!solver.check(new PuzzleSolution(rows, columns,
+            identity(cells), cellTurns))) {
+          refused++;
+        }
+      }
+    }
+    assertTrue(refused > 0, "every single turn kept the rules");
+  }
+
+  @Test
+  public void spareSquaresCanBeLeftEmpty() {
+    List<PieceData> tiles = new PuzzleGenerator(3, 3, 0.5).generate(2);
+    PuzzleSolver solver = new PuzzleSolver(tiles, 3, 4);
+    PuzzleSolution solution = solver.solve();
+    assertNotNull(solution);
+    assertTrue(solver.check(solution));
+  }
+
+  // A copy of the tiles in a random order, each turned a random amount
+  static List<PieceData> mixed(List<PieceData> tiles, long seed) {
+    Random random = new Random(seed);
+    List<PieceData> mixed = new ArrayList<PieceData>(tiles);
+    for (int i = mixed.size() - 1; i > 0; i--) {
+      int other = random.nextInt(i + 1);
+      PieceData tmp = mixed.get(other);
+      mixed.set(other, mixed.get(i));
+      mixed.set(i, tmp);
+    }
+    for (int i = 0; i < mixed.size(); i++) {
+      int[] coords = mixed.get(i).getCoords(random.nextInt(4)).clone();
+      mixed.set(i, new PieceData(i, coords.length / 4, 3, coords));
+    }
+    return mixed;
+  }
+
+  // The layout the tiles were cut from, tile i unturned in square i
+  private static PuzzleSolution maze(int rows, int columns) {
+    return new PuzzleSolution(rows, columns, identity(rows * columns),
+        new int[rows * columns]);
+  }
+
+  private static int[] identity(int length) {
+    int[] identity = new int[length];
+    for (int i = 0; i < length; i++) {
+      identity[i] = i;
+    }
+    return identity;
+  }
+}
\ No newline at end of file
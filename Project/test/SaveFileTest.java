@@ -0,0 +1,209 @@
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Tests for SaveFile: games survive a save and load, and damaged saves are
+ * refused with an IOException.
+ * 
+ * @see SaveFile
+ * 
+ * @version %I%, %G%
+ * @since 5.0
+ */
+public class SaveFileTest {
+
+  // Where the saves are written
+  @TempDir
+  Path directory;
+
+  @Test
+  public void encodeAndDecodeGiveBackTheGame() throws IOException {
+    GameSnapshot game = playedGame(4, 4, 1);
+    assertSame(game, SaveFile.decode(SaveFile.encode(game)));
+  }
+
+  @Test
+  public void largeGamesUseWiderPlaces() throws IOException {
+    assertEquals(1, SaveFile.encode(playedGame(3, 3, 2))
+        .get(SaveFile.headerSize - 1));
+    GameSnapshot game = playedGame(100, 100, 2);
+    ByteBuffer saved = SaveFile.encode(game);
+    assertEquals(2, saved.get(SaveFile.headerSize - 1));
+    assertSame(game, SaveFile.decode(saved));
+  }
+
+  @Test
+  public void writeAndReadGiveBackTheGame() throws IOException {
+    GameSnapshot game = playedGame(5, 6, 3);
+    Path save = SaveFile.pathFor(directory.resolve("puzzle.mze"));
+    assertEquals("puzzle.mzs", save.getFileName().toString());
+    SaveFile.write(save, game);
+    assertSame(game, SaveFile.read(save));
+
+    GameSnapshot later = playedGame(5, 6, 4);
+    SaveFile.write(save, later);
+    assertSame(later, SaveFile.read(save));
+    try (var files = Files.list(directory)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  public void savedGameResumesOnItsPuzzle() throws IOException {
+    GameEngine engine = new GameEngine(
+        new PuzzleGenerator(3, 3, 0.5).generate(5), 3, 3);
+    engine.newGame(new Random(5));
+    engine.place(engine.getTileAtSlot(2), 4);
+    engine.rotate(1);
+    GameSnapshot saved = SaveFile.decode(SaveFile.encode(engine.snapshot()));
+
+    GameEngine resumed = new GameEngine(
+        new PuzzleGenerator(3, 3, 0.5).generate(5), 3, 3);
+    resumed.resume(saved);
+    assertSame(engine.snapshot(), resumed.snapshot());
+    assertFalse(resumed.getHistory().canUndo());
+  }
+
+  @Test
+  public void refusesAnotherFile() {
+    byte[] bytes = bytes(playedGame(3, 3, 1));
+    bytes[0] = 'X';
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesAnotherVersion() {
+    byte[] bytes = bytes(playedGame(3, 3, 1));
+    bytes[7] = 99;
+    resign(bytes);
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesAChangedByte() {
+    byte[] good = bytes(playedGame(3, 3, 1));
+    for (int i = SaveFile.headerSize; i < good.length; i++) {
+      byte[] bytes = good.clone();
+      bytes[i] ^= 0x10;
+      assertCorrupt(bytes);
+    }
+  }
+
+  @Test
+  public void refusesASaveCutShort() {
+    byte[] good = bytes(playedGame(3, 3, 1));
+    for (int length = 0; length < good.length; length++) {
+      assertCorrupt(Arrays.copyOf(good, length));
+    }
+    byte[] longer = Arrays.copyOf(good, good.length + 1);
+    assertCorrupt(longer);
+  }
+
+  @Test
+  public void refusesAWrongTileCount() {
+    byte[] bytes = bytes(playedGame(3, 3, 1));
+    ByteBuffer.wrap(bytes).putInt(16, Integer.MAX_VALUE);
+    resign(bytes);
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesTwoTilesInOnePlace() {
+    byte[] bytes = bytes(playedGame(3, 3, 1));
+    int places = SaveFile.headerSize + 9;
+    bytes[places + 1] = bytes[places];
+    resign(bytes);
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void hugeBoardIsNotAllocatedBeforeResume() throws IOException {
+    byte[] bytes = bytes(playedGame(3, 3, 1));
+    ByteBuffer.wrap(bytes).putInt(8, 46000).putInt(12, 46000);
+    resign(bytes);
+    GameSnapshot huge = SaveFile.decode(ByteBuffer.wrap(bytes));
+    assertEquals(46000, huge.getRows());
+    GameEngine engine = new GameEngine(
+        new PuzzleGenerator(3, 3, 0.5).generate(1), 3, 3);
+    assertThrows(IllegalArgumentException.class, () -> engine.resume(huge));
+
+    ByteBuffer.wrap(bytes).putInt(8, Integer.MAX_VALUE)
+        .putInt(12, Integer.MAX_VALUE);
+    resign(bytes);
+    assertCorrupt(bytes);
+  }
+
+  @Test
+  public void refusesAMissingFile() {
+    assertThrows(IOException.class,
+        () -> SaveFile.read(directory.resolve("missing.mzs")));
+  }
+
+  // A game on a generated puzzle with some tiles moved onto the board and
+  // turned
+  private static GameSnapshot playedGame(int rows, int columns, long seed) {
+    GameEngine engine = new GameEngine(
+        new PuzzleGenerator(rows, columns, 0.5).generate(seed), rows,
+        columns);
+    Random random = new Random(seed);
+    engine.newGame(random);
+    for (int cell = 0; cell < engine.getCellCount(); cell += 2) {
+      int tile = engine.getTileAtSlot(cell);
+      engine.place(tile, cell);
+      if (random.nextBoolean()) {
+        engine.rotate(tile);
+      }
+    }
+    return engine.snapshot();
+  }
+
+  // The bytes of a save of the game
+  private static byte[] bytes(GameSnapshot game) {
+    ByteBuffer buffer = SaveFile.encode(game);
+    byte[] bytes = new byte[buffer.remaining()];
+    buffer.get(bytes);
+    return bytes;
+  }
+
+  // Write a new checksum after changing a save, so the change itself is
+  // what gets checked
+  private static void resign(byte[] bytes) {
+    CRC32 crc = new CRC32();
+    crc.update(bytes, 0, bytes.length - SaveFile.checksumSize);
+    ByteBuffer.wrap(bytes).putInt(bytes.length - SaveFile.checksumSize,
+        (int) crc.getValue());
+  }
+
+  private static void assertCorrupt(byte[] bytes) {
+    assertThrows(IOException.class,
+        () -> SaveFile.decode(ByteBuffer.wrap(bytes)));
+  }
+
+  private static void assertSame(GameSnapshot expected, GameSnapshot actual) {
+    assertEquals(expected.getRows(), actual.getRows());
+    assertEquals(expected.getColumns(), actual.getColumns());
+    assertEquals(expected.getPuzzleCode(), actual.getPuzzleCode());
+    assertEquals(expected.getTileCount(), actual.getTileCount());
+    for (int i = 0; i < expected.getTileCount(); i++) {
+      assertEquals(expected.getInitialTileAtSlot(i),
+          actual.getInitialTileAtSlot(i));
+      assertEquals(expected.getInitialRotation(i),
+          actual.getInitialRotation(i));
+      assertEquals(expected.getPlace(i), actual.getPlace(i));
+      assertEquals(expected.getRotation(i), actual.getRotation(i));
+    }
+  }
+}
\ No newline at end of file